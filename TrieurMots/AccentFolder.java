@@ -0,0 +1,91 @@
+import java.text.Normalizer;
+import java.util.regex.Pattern;
+
+/**
+ * Suppression des accents, équivalente à NFD suivi du retrait des diacritiques combinants
+ * (\p{InCombiningDiacriticalMarks}), avec trois raccourcis :
+ * <ul>
+ *   <li>texte ASCII : renvoyé tel quel, sans allocation ;</li>
+ *   <li>Latin-1 et Latin étendu A : table de correspondance caractère par caractère ;</li>
+ *   <li>mots déjà vus : cache à correspondance directe partagé par tous les threads, pour que
+ *   les threads de courte durée (un thread virtuel par requête du serveur) en profitent.</li>
+ * </ul>
+ * Les autres écritures passent par la normalisation complète.
+ */
+public final class AccentFolder {
+
+    private static final Pattern DIACRITICS_PATTERN = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+
+    /** Fin du bloc Latin étendu A (U+0100 à U+017F). */
+    private static final char TABLE_END = '\u017F';
+    /** Forme sans accent de chaque caractère jusqu'à TABLE_END ; 0 si elle n'est pas un caractère unique. */
+    private static final char[] TABLE = new char[TABLE_END + 1];
+
+    private static final int CACHE_SIZE = 1 << 14;
+    /**
+     * Sans verrou : une entrée est immuable (champs final), donc un thread voit soit une entrée
+     * complète, soit une ancienne ou aucune ; au pire, le mot est replié une seconde fois.
+     */
+    private static final Entry[] CACHE = new Entry[CACHE_SIZE];
+
+    private static final class Entry {
+        final String text;
+        final String folded;
+
+        Entry(String text, String folded) {
+            this.text = text;
+            this.folded = folded;
+        }
+    }
+
+    static {
+        // Table calculée avec la fonction de référence : identique par construction.
+        // Dans ce bloc, aucun caractère n'est un diacritique combinant, donc le
+        // résultat d'un mot est la concaténation des résultats de ses caractères.
+        for (char c = 0; c <= TABLE_END; c++) {
+            String folded = normalize(String.valueOf(c));
+            TABLE[c] = folded.length() == 1 ? folded.charAt(0) : 0;
+        }
+    }
+
+    private AccentFolder() {
+    }
+
+    public static String fold(String text) {
+        if (text == null) return null;
+        int n = text.length();
+        int i = 0;
+        while (i < n && text.charAt(i) < 128) i++;
+        if (i == n) return text; // Chemin rapide : pur ASCII
+
+        int slot = text.hashCode() & (CACHE_SIZE - 1);
+        Entry entry = CACHE[slot];
+        if (entry != null && text.equals(entry.text)) return entry.folded;
+
+        String folded = foldWithTable(text, i);
+        if (folded == null) folded = normalize(text);
+        CACHE[slot] = new Entry(text, folded);
+        return folded;
+    }
+
+    /** Repli par table à partir du premier caractère non ASCII ; null si un caractère sort de la table. */
+    private static String foldWithTable(String text, int firstNonAscii) {
+        char[] chars = null;
+        for (int i = firstNonAscii; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 128) continue;
+            if (c > TABLE_END || TABLE[c] == 0) return null;
+            if (TABLE[c] != c) {
+                if (chars == null) chars = text.toCharArray();
+                chars[i] = TABLE[c];
+            }
+        }
+        return chars == null ? text : new String(chars);
+    }
+
+    /** Fonction de référence : NFD puis retrait des diacritiques combinants. */
+    static String normalize(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS_PATTERN.matcher(normalized).replaceAll("");
+    }
+}
@@ -0,0 +1,440 @@
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tri par lots de nombreux fichiers, dans un budget mémoire fixe.
+ *
+ * Sortie fusionnée : pipeline concurrent lecture → normalisation → tri, relié par des files bornées.
+ * Les lecteurs découpent plusieurs fichiers à la fois en paquets de mots, les normaliseurs
+ * calculent les clés des segments (voir {@link ExternalSorter#recordKey}), et le thread appelant remplit les segments d'un
+ * {@link ExternalSorter}, triés et écrits en arrière-plan puis fusionnés. Une file pleine
+ * ralentit l'étape précédente : la mémoire reste bornée quel que soit le nombre de fichiers.
+ * Les paquets en transit (files, paquets en cours de remplissage ou de normalisation) ont leur
+ * part du budget : leur taille en octets en est déduite, le reste revient aux segments.
+ *
+ * Chaque mot est numéroté par (fichier, position) : le résultat est identique au tri de la
+ * concaténation des fichiers dans l'ordre donné, quel que soit l'ordre d'arrivée des paquets.
+ *
+ * Sortie par fichier : les fichiers sont triés indépendamment, plusieurs à la fois,
+ * chacun avec sa part du budget.
+ */
+public class BatchSorter {
+
+    /** Nombre maximal de mots par paquet échangé entre deux étapes. */
+    private static final int BATCH_WORDS = 1 << 12;
+    /** Part du budget réservée aux paquets en transit entre les étapes (1/4) ; le reste va aux segments. */
+    private static final int PIPELINE_SHARE = 4;
+    /** Bits de la position du mot dans son fichier ; les bits de poids fort portent le numéro du fichier. */
+    private static final int POSITION_BITS = 40;
+    /** Marque de fin d'une file. */
+    private static final Batch END = new Batch(-1, 0, new String[0], 0);
+
+    private final SortOptions options;
+    private final long memoryBudget;
+    private final File tempDir;
+    private final int threads;
+    private final Charset charset;
+    private final AtomicLong wordCount = new AtomicLong();
+    private ProgressListener listener = ProgressListener.NONE;
+
+    /**
+     * @param memoryBudget octets maximum occupés par les mots en cours de tri (segments compris)
+     * @param threads      nombre de threads par étape
+     * @param charset      encodage des fichiers, ou null pour le détecter
+     */
+    public BatchSorter(SortOptions options, long memoryBudget, File tempDir, int threads, Charset charset) {
+        if (memoryBudget <= 0) throw new IllegalArgumentException("Budget mémoire invalide : " + memoryBudget);
+        if (threads < 1) throw new IllegalArgumentException("Nombre de threads invalide : " + threads);
+        this.options = options;
+        this.memoryBudget = memoryBudget;
+        this.tempDir = tempDir;
+        this.threads = threads;
+        this.charset = charset;
+    }
+
+    /**
+     * Suivi des étapes et annulation. Les étapes se recouvrent : le thread appelant signale le tri
+     * (attente des paquets comprise) et la fusion ; les threads de lecture et de normalisation
+     * transmettent leur temps de travail par {@link ProgressListener#phaseTime}.
+     */
+    public void setProgressListener(ProgressListener listener) {
+        this.listener = listener;
+    }
+
+    /** Nombre de mots lus dans tous les fichiers. */
+    public long getWordCount() {
+        return wordCount.get();
+    }
+
+    /**
+     * Liste les fichiers désignés : fichiers, répertoires (fichiers qu'ils contiennent directement)
+     * et motifs glob (« listes/*.txt », « corpus/**.txt »), chacun trié par nom.
+     */
+    public static List<File> expand(List<String> inputs) throws IOException {
+        List<File> files = new ArrayList<File>();
+        for (String input : inputs) {
+            int glob = firstGlobChar(input);
+            if (glob >= 0) {
+                files.addAll(match(input, glob));
+                continue;
+            }
+            File f = new File(input);
+            if (!f.isDirectory()) {
+                files.add(f);
+                continue;
+            }
+            File[] children = f.listFiles();
+            if (children == null) throw new IOException("Répertoire illisible : " + input);
+            Arrays.sort(children);
+            for (File child : children) if (child.isFile()) files.add(child);
+        }
+        return files;
+    }
+
+    private static int firstGlobChar(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            if ("*?[{".indexOf(input.charAt(i)) >= 0) return i;
+        }
+        return -1;
+    }
+
+    /** Fichiers correspondant au motif, cherchés à partir du répertoire qui le précède. */
+    private static List<File> match(String input, int glob) throws IOException {
+        int slash = Math.max(input.lastIndexOf('/', glob), input.lastIndexOf(File.separatorChar, glob));
+        final Path base = Paths.get(slash < 0 ? "." : input.substring(0, slash + 1));
+        String pattern = input.substring(slash + 1);
+        final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        // Sans séparateur ni « ** », le motif ne porte que sur le répertoire de base
+        int depth = pattern.indexOf('/') >= 0 || pattern.contains("**") ? Integer.MAX_VALUE : 1;
+        final List<File> matched = new ArrayList<File>();
+        if (Files.isDirectory(base)) {
+            Files.walkFileTree(base, EnumSet.noneOf(FileVisitOption.class), depth, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && matcher.matches(base.relativize(file))) matched.add(file.toFile());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        if (matched.isEmpty()) throw new IOException("Aucun fichier ne correspond à : " + input);
+        Collections.sort(matched);
+        return matched;
+    }
+
+    /**
+     * Trie tous les fichiers ensemble (dédoublonnés si demandé) et écrit un mot par ligne.
+     * @return le nombre de mots écrits
+     */
+    public long sortMerged(final List<File> files, Writer out, String lineSeparator) throws IOException {
+        final BlockingQueue<Batch> tokenized = new ArrayBlockingQueue<Batch>(2 * threads);
+        final BlockingQueue<Batch> normalized = new ArrayBlockingQueue<Batch>(2 * threads);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final AtomicInteger nextFile = new AtomicInteger();
+        int readers = Math.max(1, Math.min(threads, files.size()));
+        final AtomicInteger readersLeft = new AtomicInteger(readers);
+        final AtomicInteger normalizersLeft = new AtomicInteger(threads);
+        final ExecutorService pool = newPool(readers + threads, "trieur-lot");
+
+        // Paquets en transit au plus : les deux files pleines, un par lecteur, un par
+        // normaliseur et celui que vide le thread appelant
+        long pipelineBudget = memoryBudget / PIPELINE_SHARE;
+        int inFlight = 2 * 2 * threads + readers + threads + 1;
+        final long batchBytes = Math.max(1, pipelineBudget / inFlight);
+        ExternalSorter sorter = new ExternalSorter(options, Math.max(1, memoryBudget - pipelineBudget), tempDir, threads);
+        sorter.setProgressListener(listener);
+        try {
+            // Lecture : chaque lecteur prend le fichier suivant et le découpe en paquets
+            for (int i = 0; i < readers; i++) {
+                pool.execute(new Stage(failure, pool) {
+                    void work() throws IOException, InterruptedException {
+                        PhaseTimer timer = new PhaseTimer(listener);
+                        int f;
+                        while ((f = nextFile.getAndIncrement()) < files.size()) {
+                            read(f, files.get(f), files.size(), batchBytes, tokenized, timer);
+                        }
+                        if (readersLeft.decrementAndGet() == 0) {
+                            for (int j = 0; j < threads; j++) tokenized.put(END);
+                        }
+                    }
+                });
+            }
+            // Normalisation : une copie du Collator par thread
+            for (int i = 0; i < threads; i++) {
+                pool.execute(new Stage(failure, pool) {
+                    void work() throws InterruptedException {
+                        PhaseTimer timer = new PhaseTimer(listener);
+                        Collator collator = SortEngine.createCollator(options);
+                        Batch batch;
+                        while ((batch = tokenized.take()) != END) {
+                            timer.progress(ProgressListener.Phase.NORMALIZE, batch.first, -1);
+                            batch.keys = new byte[batch.size][];
+                            for (int j = 0; j < batch.size; j++) {
+                                batch.keys[j] = ExternalSorter.recordKey(collator, batch.words[j], options);
+                            }
+                            timer.pause();
+                            normalized.put(batch);
+                        }
+                        if (normalizersLeft.decrementAndGet() == 0) normalized.put(END);
+                    }
+                });
+            }
+            // Tri : les segments pleins sont triés et écrits par les threads de l'ExternalSorter
+            Batch batch;
+            long added = 0;
+            listener.progress(ProgressListener.Phase.SORT, 0, -1);
+            while ((batch = take(normalized, failure)) != END) {
+                SortEngine.checkCancelled(listener);
+                listener.progress(ProgressListener.Phase.SORT, added += batch.size, -1);
+                long seq = ((long) batch.file << POSITION_BITS) + batch.first;
+                for (int j = 0; j < batch.size; j++) sorter.add(batch.words[j], batch.keys[j], seq + j);
+            }
+            wordCount.addAndGet(sorter.getWordCount());
+            return sorter.writeTo(out, lineSeparator);
+        } finally {
+            pool.shutdownNow();
+            sorter.close();
+        }
+    }
+
+    /**
+     * Découpe un fichier en paquets de mots numérotés par leur position dans le fichier.
+     * Un paquet est envoyé dès qu'il atteint BATCH_WORDS mots ou batchBytes octets, clés
+     * comprises (estimées à deux octets par caractère avant normalisation).
+     * L'attente d'une place dans la file n'est pas comptée dans le temps de découpage.
+     */
+    private void read(int fileIndex, File file, int fileCount, long batchBytes, BlockingQueue<Batch> queue,
+                      PhaseTimer timer) throws IOException, InterruptedException {
+        timer.progress(ProgressListener.Phase.TOKENIZE, fileIndex, fileCount);
+        Reader reader = FileLoader.openReader(file, charset);
+        try {
+            WordTokenizer.Words words = new WordTokenizer(options.getSeparators()).words(reader);
+            String[] buffer = new String[BATCH_WORDS];
+            int size = 0;
+            long bytes = 0;
+            long first = 0;
+            String w;
+            while ((w = words.next()) != null) {
+                buffer[size++] = w;
+                bytes += ExternalSorter.recordBytes(w, 2 * w.length());
+                if (size == BATCH_WORDS || bytes >= batchBytes) {
+                    timer.pause();
+                    // Un paquet fermé avant d'être plein part dans un tableau à sa taille
+                    String[] sent = size == BATCH_WORDS ? buffer : Arrays.copyOf(buffer, size);
+                    queue.put(new Batch(fileIndex, first, sent, size));
+                    timer.progress(ProgressListener.Phase.TOKENIZE, fileIndex, fileCount);
+                    first += size;
+                    if (sent == buffer) buffer = new String[BATCH_WORDS];
+                    else Arrays.fill(buffer, 0, size, null);
+                    size = 0;
+                    bytes = 0;
+                }
+            }
+            timer.pause();
+            if (size > 0) queue.put(new Batch(fileIndex, first, Arrays.copyOf(buffer, size), size));
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Trie chaque fichier séparément et l'écrit sous le même nom dans outputDir
+     * (suffixe .gz si gzip). Plusieurs fichiers sont triés en même temps.
+     * @return le nombre total de mots écrits
+     */
+    public long sortEach(List<File> files, File outputDir, final boolean gzip, final String lineSeparator)
+            throws IOException {
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Impossible de créer le répertoire : " + outputDir);
+        }
+        // Les noms de sortie doivent être distincts et ne jamais écraser une entrée
+        Set<String> names = new HashSet<String>();
+        Set<File> sources = new HashSet<File>();
+        for (File f : files) sources.add(f.getCanonicalFile());
+        final List<File> targets = new ArrayList<File>(files.size());
+        for (File f : files) {
+            File target = new File(outputDir, f.getName() + (gzip ? ".gz" : ""));
+            if (!names.add(target.getName())) throw new IOException("Deux fichiers d'entrée portent le nom " + f.getName());
+            if (sources.contains(target.getCanonicalFile())) {
+                throw new IOException("Le fichier de sortie écraserait une entrée : " + target);
+            }
+            targets.add(target);
+        }
+
+        int workers = Math.max(1, Math.min(threads, files.size()));
+        final long share = Math.max(1, memoryBudget / workers);
+        ExecutorService pool = newPool(workers, "trieur-fichier");
+        try {
+            List<Future<Long>> results = new ArrayList<Future<Long>>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                final File source = files.get(i);
+                final File target = targets.get(i);
+                results.add(pool.submit(new Callable<Long>() {
+                    public Long call() throws IOException {
+                        return sortFile(source, target, share, gzip, lineSeparator);
+                    }
+                }));
+            }
+            long written = 0;
+            for (Future<Long> result : results) written += get(result);
+            return written;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private long sortFile(File source, File target, long budget, boolean gzip, String lineSeparator)
+            throws IOException {
+        ExternalSorter sorter = new ExternalSorter(options, budget, tempDir);
+        // Fichiers triés en parallèle : chaque thread transmet son propre temps par étape
+        PhaseTimer timer = new PhaseTimer(listener);
+        sorter.setProgressListener(timer);
+        try {
+            Reader reader = FileLoader.openReader(source, charset);
+            try {
+                sorter.addAll(reader);
+            } finally {
+                reader.close();
+            }
+            wordCount.addAndGet(sorter.getWordCount());
+            boolean complete = false;
+            Writer out = ResultExporter.openWriter(new FileOutputStream(target), gzip);
+            try {
+                long written = sorter.writeTo(out, lineSeparator);
+                complete = true;
+                return written;
+            } finally {
+                try {
+                    out.close();
+                } finally {
+                    if (!complete) target.delete();
+                }
+            }
+        } finally {
+            timer.pause();
+            sorter.close();
+        }
+    }
+
+    /** Prend le paquet suivant en surveillant les erreurs des autres étapes. */
+    private static Batch take(BlockingQueue<Batch> queue, AtomicReference<Throwable> failure) throws IOException {
+        try {
+            while (true) {
+                Batch batch = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (batch != null) return batch;
+                rethrow(failure.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Tri interrompu");
+        }
+    }
+
+    private static long get(Future<Long> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Tri interrompu");
+        } catch (ExecutionException ex) {
+            rethrow(ex.getCause());
+            return 0;
+        }
+    }
+
+    private static void rethrow(Throwable t) throws IOException {
+        if (t == null) return;
+        if (t instanceof IOException) throw (IOException) t;
+        if (t instanceof RuntimeException) throw (RuntimeException) t;
+        if (t instanceof Error) throw (Error) t;
+        throw new IllegalStateException(t);
+    }
+
+    private static ExecutorService newPool(int size, final String name) {
+        return Executors.newFixedThreadPool(size, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Étape du pipeline. La première erreur est conservée pour le thread appelant et arrête
+     * toutes les étapes : les threads bloqués sur une file pleine ou vide sont interrompus.
+     */
+    private abstract static class Stage implements Runnable {
+        private final AtomicReference<Throwable> failure;
+        private final ExecutorService pool;
+
+        Stage(AtomicReference<Throwable> failure, ExecutorService pool) {
+            this.failure = failure;
+            this.pool = pool;
+        }
+
+        abstract void work() throws Exception;
+
+        public final void run() {
+            try {
+                work();
+            } catch (InterruptedException ex) {
+                // Arrêt demandé après l'erreur d'une autre étape
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /** Paquet de mots consécutifs d'un fichier, avec leurs clés une fois normalisés. */
+    private static final class Batch {
+        final int file;
+        final long first;
+        final String[] words;
+        final int size;
+        byte[][] keys;
+
+        Batch(int file, long first, String[] words, int size) {
+            this.file = file;
+            this.first = first;
+            this.words = words;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,528 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tri externe pour les entrées plus grandes que le tas.
+ * Le texte est lu en flux, découpé en segments triés (runs) de taille bornée,
+ * écrits sur disque, puis fusionnés (k-way merge) à l'aide d'un tas, en plusieurs passes
+ * s'il y a plus de {@link #MERGE_FAN_IN} segments.
+ *
+ * Le résultat est identique à celui de {@link SortEngine} pour les mêmes options :
+ * les mots de clés égales restent dans l'ordre d'apparition (inversé en décroissant)
+ * et le dédoublonnage conserve la première occurrence.
+ *
+ * Deux mots de même clé de dédoublonnage peuvent avoir des clés de tri différentes
+ * (« ǅ » et « Ǆ » en ignorant la casse) : le tri dédoublonné se fait donc en deux passes.
+ * La première trie par clé de dédoublonnage et ne garde que la première occurrence de chaque
+ * groupe, la seconde trie ces mots par clé de collation.
+ *
+ * Avec plusieurs threads de tri, un segment plein est trié et écrit en arrière-plan pendant
+ * que le suivant se remplit ; le budget est alors partagé entre les segments en cours.
+ */
+public class ExternalSorter implements Closeable {
+
+    /** Coût mémoire estimé d'un mot en plus de ses caractères et de sa clé. */
+    private static final int RECORD_OVERHEAD_BYTES = 96;
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+    /** Segments fusionnés à la fois : borne les fichiers ouverts et la mémoire des tampons de lecture. */
+    static final int MERGE_FAN_IN = 64;
+
+    private final SortOptions options;
+    private final Collator collator;
+    /** Première passe d'un tri dédoublonné : segments triés par clé de dédoublonnage. */
+    private final boolean dedup;
+    private final long memoryBudget;
+    /** Budget d'un segment : le budget total, partagé entre les segments en cours d'écriture. */
+    private final long runBudget;
+    private final File tempDir;
+    private final int sortThreads;
+
+    private final List<File> runFiles = Collections.synchronizedList(new ArrayList<File>());
+    private List<Record> pending = new ArrayList<Record>();
+    private long pendingBytes = 0;
+    private long sequence = 0;
+    private long wordCount = 0;
+
+    /** Écriture des segments en arrière-plan (null : écriture dans le thread appelant). */
+    private final ExecutorService spillPool;
+    private final Semaphore spillSlots;
+    private final List<Future<Void>> spills = new ArrayList<Future<Void>>();
+    private ProgressListener listener = ProgressListener.NONE;
+
+    /**
+     * @param memoryBudget octets maximum occupés par les mots en mémoire avant écriture sur disque
+     * @param tempDir      répertoire des fichiers temporaires (null : répertoire système)
+     */
+    public ExternalSorter(SortOptions options, long memoryBudget, File tempDir) {
+        this(options, memoryBudget, tempDir, 1);
+    }
+
+    /**
+     * @param sortThreads nombre de segments triés et écrits en même temps que le remplissage
+     *                    du suivant (1 : tri et écriture dans le thread appelant)
+     */
+    public ExternalSorter(SortOptions options, long memoryBudget, File tempDir, int sortThreads) {
+        this(options, memoryBudget, tempDir, sortThreads, options.isRemoveDuplicates());
+    }
+
+    private ExternalSorter(SortOptions options, long memoryBudget, File tempDir, int sortThreads, boolean dedup) {
+        if (memoryBudget <= 0) throw new IllegalArgumentException("Budget mémoire invalide : " + memoryBudget);
+        if (sortThreads < 1) throw new IllegalArgumentException("Nombre de threads invalide : " + sortThreads);
+        this.options = options;
+        this.collator = SortEngine.createCollator(options);
+        this.dedup = dedup;
+        this.memoryBudget = memoryBudget;
+        this.tempDir = tempDir;
+        this.sortThreads = sortThreads;
+        this.runBudget = sortThreads == 1 ? memoryBudget : Math.max(1, memoryBudget / (sortThreads + 1));
+        if (sortThreads > 1) {
+            spillSlots = new Semaphore(sortThreads);
+            spillPool = Executors.newFixedThreadPool(sortThreads, new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "trieur-segment");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        } else {
+            spillSlots = null;
+            spillPool = null;
+        }
+    }
+
+    /** Budget par défaut : un quart du tas maximum. */
+    public static long defaultMemoryBudget() {
+        return Runtime.getRuntime().maxMemory() / 4;
+    }
+
+    /** Lit et découpe tout le contenu du flux ; les segments pleins partent sur disque. */
+    public void addAll(Reader input) throws IOException {
+        WordTokenizer.Words words = new WordTokenizer(options.getSeparators()).words(input);
+        // Par blocs, pour signaler chaque étape (découpage, clés, remplissage des segments)
+        List<String> block = new ArrayList<String>(SortEngine.PROGRESS_STEP);
+        byte[][] keys = new byte[SortEngine.PROGRESS_STEP][];
+        while (true) {
+            SortEngine.checkCancelled(listener);
+            listener.progress(ProgressListener.Phase.TOKENIZE, wordCount, -1);
+            String w;
+            while (block.size() < SortEngine.PROGRESS_STEP && (w = words.next()) != null) block.add(w);
+            if (block.isEmpty()) return;
+            listener.progress(ProgressListener.Phase.NORMALIZE, wordCount, -1);
+            for (int i = 0; i < block.size(); i++) keys[i] = recordKey(collator, block.get(i), options);
+            listener.progress(ProgressListener.Phase.SORT, wordCount, -1);
+            for (int i = 0; i < block.size(); i++) {
+                add(block.get(i), keys[i], sequence++);
+                keys[i] = null;
+            }
+            block.clear();
+        }
+    }
+
+    /**
+     * Suivi des étapes (découpage, normalisation, tri des segments, fusion) et annulation.
+     * Les segments triés en arrière-plan ne sont pas signalés : seul le thread appelant l'est.
+     */
+    public void setProgressListener(ProgressListener listener) {
+        this.listener = listener;
+    }
+
+    public void add(String word) throws IOException {
+        add(word, recordKey(collator, word, options), sequence++);
+    }
+
+    /**
+     * Clé sous laquelle un mot est trié dans les segments : la clé de dédoublonnage (UTF-8)
+     * si les doublons sont supprimés, sinon la clé de collation.
+     */
+    static byte[] recordKey(Collator collator, String word, SortOptions options) {
+        if (options.isRemoveDuplicates()) return SortEngine.dedupKey(word, options).getBytes(StandardCharsets.UTF_8);
+        return SortEngine.sortKey(collator, word, options);
+    }
+
+    /**
+     * Ajoute un mot dont la clé a déjà été calculée par recordKey (pipeline de {@link BatchSorter}).
+     * @param seq position globale du mot : départage les clés égales et désigne la première occurrence
+     */
+    void add(String word, byte[] key, long seq) throws IOException {
+        pending.add(new Record(key, seq, word));
+        wordCount++;
+        pendingBytes += recordBytes(word, key.length);
+        if (pendingBytes >= runBudget) spill();
+    }
+
+    /** Coût mémoire estimé d'un mot et de sa clé, celui qui est décompté du budget. */
+    static long recordBytes(String word, int keyLength) {
+        return RECORD_OVERHEAD_BYTES + 2L * word.length() + keyLength;
+    }
+
+    /**
+     * Fusionne tous les segments et écrit un mot par ligne.
+     * @return le nombre de mots écrits
+     */
+    public long writeTo(final Writer out, final String lineSeparator) throws IOException {
+        if (!dedup) {
+            final long[] count = new long[1];
+            forEachSorted(ProgressListener.Phase.EMIT, new RecordSink() {
+                public void accept(Record r) throws IOException {
+                    out.write(r.word);
+                    out.write(lineSeparator);
+                    count[0]++;
+                }
+            });
+            return count[0];
+        }
+        // Seconde passe : les premières occurrences, dans l'ordre des clés de dédoublonnage,
+        // sont retriées par clé de collation (même budget, mêmes threads)
+        final ExternalSorter firsts = new ExternalSorter(options, memoryBudget, tempDir, sortThreads, false);
+        firsts.setProgressListener(listener);
+        try {
+            forEachSorted(ProgressListener.Phase.SORT, new RecordSink() {
+                private byte[] previous;
+
+                public void accept(Record r) throws IOException {
+                    // Ordre (clé, séquence) : le premier de chaque groupe est la première occurrence
+                    if (previous == null || SortEngine.compareKeys(previous, r.key) != 0) {
+                        firsts.add(r.word, SortEngine.sortKey(firsts.collator, r.word, options), r.seq);
+                    }
+                    previous = r.key;
+                }
+            });
+            return firsts.writeTo(out, lineSeparator);
+        } finally {
+            firsts.close();
+        }
+    }
+
+    /**
+     * Parcourt tous les mots dans l'ordre, en mémoire ou par fusion des segments.
+     * @param phase étape signalée pendant le parcours (EMIT, ou SORT pour la première passe)
+     */
+    private void forEachSorted(ProgressListener.Phase phase, RecordSink sink) throws IOException {
+        SortEngine.checkCancelled(listener);
+        listener.progress(ProgressListener.Phase.SORT, wordCount, wordCount);
+        awaitSpills();
+        if (runFiles.isEmpty()) {
+            // Tout tient en mémoire : pas de passage par le disque
+            Record[] records = sortPending();
+            pending = new ArrayList<Record>();
+            for (int i = 0; i < records.length; i++) {
+                if (i % SortEngine.PROGRESS_STEP == 0) progress(phase, i, records.length);
+                sink.accept(records[i]);
+                records[i] = null;
+            }
+            listener.progress(phase, records.length, records.length);
+            return;
+        }
+        if (!pending.isEmpty()) spill();
+        awaitSpills();
+
+        // Passes intermédiaires : jamais plus de MERGE_FAN_IN segments ouverts à la fois
+        while (runFiles.size() > MERGE_FAN_IN) mergePass();
+        List<File> runs;
+        synchronized (runFiles) {
+            runs = new ArrayList<File>(runFiles);
+        }
+        // Total approché : les doublons retirés dans les segments ne sont pas relus
+        long done = merge(runs, phase, wordCount, sink);
+        listener.progress(phase, done, done);
+    }
+
+    /**
+     * Fusionne les segments par groupes de MERGE_FAN_IN ; chaque groupe devient un segment
+     * unique, et les segments fusionnés sont supprimés.
+     */
+    private void mergePass() throws IOException {
+        List<File> runs;
+        synchronized (runFiles) {
+            runs = new ArrayList<File>(runFiles);
+        }
+        for (int from = 0; from < runs.size(); from += MERGE_FAN_IN) {
+            List<File> group = runs.subList(from, Math.min(runs.size(), from + MERGE_FAN_IN));
+            if (group.size() == 1) continue;
+            File f = File.createTempFile("trieur-run-", ".bin", tempDir);
+            runFiles.add(f);
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f), IO_BUFFER_SIZE));
+            try {
+                merge(group, ProgressListener.Phase.SORT, wordCount, new RecordSink() {
+                    private byte[] previous;
+
+                    public void accept(Record r) throws IOException {
+                        // Même dédoublonnage anticipé que writeRun : la première occurrence passe en tête
+                        boolean duplicate = dedup && previous != null && SortEngine.compareKeys(previous, r.key) == 0;
+                        previous = r.key;
+                        if (!duplicate) r.write(out);
+                    }
+                });
+            } finally {
+                out.close();
+            }
+            for (File g : group) {
+                runFiles.remove(g);
+                g.delete();
+            }
+        }
+    }
+
+    /**
+     * Fusion des segments donnés à l'aide d'un tas ; chaque segment ouvert est refermé,
+     * y compris quand la lecture ou le puits échoue.
+     * @return le nombre d'enregistrements transmis au puits
+     */
+    private long merge(List<File> runs, ProgressListener.Phase phase, long total, RecordSink sink) throws IOException {
+        PriorityQueue<RunReader> heap = new PriorityQueue<RunReader>(runs.size());
+        // Segment hors du tas : en cours d'ouverture, ou retiré du tas le temps de le transmettre
+        RunReader out = null;
+        long done = 0;
+        try {
+            for (File f : runs) {
+                out = new RunReader(f);
+                if (out.advance()) heap.add(out);
+                else out.close();
+                out = null;
+            }
+            while (!heap.isEmpty()) {
+                if (done++ % SortEngine.PROGRESS_STEP == 0) progress(phase, done, total);
+                out = heap.poll();
+                sink.accept(out.current);
+                if (out.advance()) heap.add(out);
+                else out.close();
+                out = null;
+            }
+            return done;
+        } finally {
+            closeQuietly(out);
+            for (RunReader r : heap) closeQuietly(r);
+        }
+    }
+
+    /** Fermeture sur un chemin d'erreur : l'exception d'origine n'est pas masquée. */
+    private static void closeQuietly(Closeable c) {
+        if (c == null) return;
+        try {
+            c.close();
+        } catch (IOException ignored) {
+            // Rien de plus à faire : l'erreur d'origine remonte
+        }
+    }
+
+    private void progress(ProgressListener.Phase phase, long done, long total) {
+        SortEngine.checkCancelled(listener);
+        listener.progress(phase, done, total);
+    }
+
+    /** Interrompt les écritures en cours et supprime les fichiers temporaires. */
+    public void close() {
+        if (spillPool != null) {
+            spillPool.shutdownNow();
+            try {
+                spillPool.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (runFiles) {
+            for (File f : runFiles) f.delete();
+            runFiles.clear();
+        }
+        pending.clear();
+    }
+
+    public int getRunCount() {
+        return runFiles.size();
+    }
+
+    /** Nombre de mots ajoutés. */
+    public long getWordCount() {
+        return wordCount;
+    }
+
+    /** Trie les mots en attente ; l'ordre est total (séquence), le tri parallèle donne donc le même résultat. */
+    private Record[] sortPending() {
+        Record[] records = pending.toArray(new Record[pending.size()]);
+        if (sortThreads > 1) Arrays.parallelSort(records, order());
+        else Arrays.sort(records, order());
+        return records;
+    }
+
+    /** Dédoublonnage : toujours croissant, pour que la première occurrence ouvre son groupe. */
+    private Comparator<Record> order() {
+        return dedup || options.isAscending() ? ASCENDING : DESCENDING;
+    }
+
+    private void spill() throws IOException {
+        SortEngine.checkCancelled(listener);
+        final List<Record> run = pending;
+        pending = new ArrayList<Record>();
+        pendingBytes = 0;
+        if (spillPool == null) {
+            writeRun(run);
+            return;
+        }
+        checkSpills();
+        try {
+            // Tous les threads occupés : le remplissage attend, ce qui borne la mémoire
+            spillSlots.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Tri interrompu");
+        }
+        spills.add(spillPool.submit(new Callable<Void>() {
+            public Void call() throws IOException {
+                try {
+                    writeRun(run);
+                    return null;
+                } finally {
+                    spillSlots.release();
+                }
+            }
+        }));
+    }
+
+    /** Trie un segment et l'écrit dans un fichier temporaire. */
+    private void writeRun(List<Record> run) throws IOException {
+        Record[] records = run.toArray(new Record[run.size()]);
+        run.clear();
+        Arrays.sort(records, order());
+        File f = File.createTempFile("trieur-run-", ".bin", tempDir);
+        runFiles.add(f);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f), IO_BUFFER_SIZE));
+        try {
+            for (int i = 0; i < records.length; i++) {
+                // Dédoublonnage anticipé à l'intérieur du segment pour réduire les écritures
+                if (dedup && i > 0 && SortEngine.compareKeys(records[i - 1].key, records[i].key) == 0) continue;
+                records[i].write(out);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /** Remonte l'erreur d'une écriture terminée en échec, sans attendre les autres. */
+    private void checkSpills() throws IOException {
+        for (Future<Void> f : spills) {
+            if (f.isDone()) getSpill(f);
+        }
+    }
+
+    /** Attend la fin de toutes les écritures de segments. */
+    private void awaitSpills() throws IOException {
+        for (Future<Void> f : spills) getSpill(f);
+        spills.clear();
+    }
+
+    private static void getSpill(Future<Void> f) throws IOException {
+        try {
+            f.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Tri interrompu");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) throw (IOException) ex.getCause();
+            if (ex.getCause() instanceof RuntimeException) throw (RuntimeException) ex.getCause();
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private static final Comparator<Record> ASCENDING = new Comparator<Record>() {
+        public int compare(Record a, Record b) {
+            int c = SortEngine.compareKeys(a.key, b.key);
+            return c != 0 ? c : Long.compare(a.seq, b.seq);
+        }
+    };
+
+    private static final Comparator<Record> DESCENDING = new Comparator<Record>() {
+        public int compare(Record a, Record b) {
+            return ASCENDING.compare(b, a);
+        }
+    };
+
+    private interface RecordSink {
+        void accept(Record r) throws IOException;
+    }
+
+    /** Mot, clé de tri et position d'origine dans l'entrée. */
+    private static final class Record {
+        final byte[] key;
+        final long seq;
+        final String word;
+
+        Record(byte[] key, long seq, String word) {
+            this.key = key;
+            this.seq = seq;
+            this.word = word;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            byte[] w = word.getBytes(StandardCharsets.UTF_8);
+            out.writeLong(seq);
+            out.writeInt(key.length);
+            out.write(key);
+            out.writeInt(w.length);
+            out.write(w);
+        }
+
+        static Record read(DataInputStream in) throws IOException {
+            long seq;
+            try {
+                seq = in.readLong();
+            } catch (EOFException end) {
+                return null;
+            }
+            byte[] key = new byte[in.readInt()];
+            in.readFully(key);
+            byte[] w = new byte[in.readInt()];
+            in.readFully(w);
+            return new Record(key, seq, new String(w, StandardCharsets.UTF_8));
+        }
+    }
+
+    /** Curseur sur un segment trié ; ordonné dans le tas par son enregistrement courant. */
+    private final class RunReader implements Comparable<RunReader>, Closeable {
+        private final DataInputStream in;
+        Record current;
+
+        RunReader(File f) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(f), IO_BUFFER_SIZE));
+        }
+
+        boolean advance() throws IOException {
+            current = Record.read(in);
+            return current != null;
+        }
+
+        public int compareTo(RunReader other) {
+            return order().compare(current, other.current);
+        }
+
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Chargement de fichiers texte par projection mémoire (FileChannel.map).
+ * L'encodage est explicite ou détecté : BOM UTF-8 / UTF-16, sinon UTF-8 s'il est valide,
+ * sinon ISO-8859-1. Le fichier est décodé par fenêtres, ce qui permet de suivre
+ * l'avancement et d'annuler entre deux fenêtres. Sans BOM, {@link #load} décode d'emblée
+ * en UTF-8 et ne relit le fichier en ISO-8859-1 qu'à la première séquence invalide ;
+ * {@link #openReader}, qui ne peut pas revenir en arrière, vérifie tout le fichier avant
+ * de l'ouvrir. Les deux choisissent donc toujours le même encodage.
+ */
+public final class FileLoader {
+
+    /** Taille d'une fenêtre projetée : granularité du suivi et de l'annulation. */
+    private static final int WINDOW_SIZE = 8 << 20;
+    /** Tampon de caractères, réutilisé, de la vérification UTF-8. */
+    private static final int CHECK_BUFFER_SIZE = 64 << 10;
+    private static final int MAX_CHARS = Integer.MAX_VALUE - 8;
+
+    private FileLoader() {
+    }
+
+    /**
+     * Charge tout le fichier en mémoire sous forme de caractères.
+     * @param charset encodage imposé, ou null pour le détecter
+     * @throws CancellationException si le listener demande l'annulation
+     */
+    public static CharBuffer load(File file, Charset charset, ProgressListener listener) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            if (charset == null) charset = charsetFromBom(channel);
+            if (charset == null) {
+                // Pas de BOM : UTF-8 en mode strict, repli sur ISO-8859-1 à la première erreur
+                try {
+                    return decode(channel, StandardCharsets.UTF_8, CodingErrorAction.REPORT, listener);
+                } catch (MalformedInputException ex) {
+                    charset = StandardCharsets.ISO_8859_1;
+                }
+            }
+            return decode(channel, charset, CodingErrorAction.REPLACE, listener);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /** Décode tout le fichier, BOM retiré ; avec REPORT, MalformedInputException à la première séquence invalide. */
+    private static CharBuffer decode(FileChannel channel, Charset charset, CodingErrorAction action,
+                                     ProgressListener listener) throws IOException {
+        long size = channel.size();
+        long position = bomLength(channel, charset);
+
+        long estimate = charset.equals(StandardCharsets.UTF_16BE) || charset.equals(StandardCharsets.UTF_16LE)
+                ? size / 2 : size;
+        if (estimate > MAX_CHARS) {
+            throw new IOException("Fichier trop volumineux pour être chargé en mémoire (" + size
+                    + " octets) : utilisez le tri externe.");
+        }
+        CharBuffer out = CharBuffer.allocate((int) Math.max(16, estimate));
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(action)
+                .onUnmappableCharacter(action);
+
+        while (true) {
+            if (listener.isCancelled()) throw new CancellationException();
+            long window = Math.min(WINDOW_SIZE, size - position);
+            ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, position, window);
+            boolean last = position + window >= size;
+            while (true) {
+                CoderResult result = decoder.decode(in, out, last);
+                if (result.isError()) result.throwException();
+                if (!result.isOverflow()) break;
+                out = grow(out);
+            }
+            // Une séquence coupée en fin de fenêtre est relue au début de la suivante
+            position += in.position();
+            listener.progress(ProgressListener.Phase.LOAD, position, size);
+            if (last) break;
+        }
+        while (decoder.flush(out).isOverflow()) out = grow(out);
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Ouvre un Reader en flux sur le fichier, BOM retiré, pour le tri externe.
+     * @param charset encodage imposé, ou null pour le détecter
+     */
+    public static Reader openReader(File file, Charset charset) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            if (charset == null) charset = detectCharset(channel);
+            channel.position(bomLength(channel, charset));
+            InputStream in = Channels.newInputStream(channel);
+            return new InputStreamReader(in, charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE));
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Encodage d'après le BOM, sinon UTF-8 si tout le fichier est de l'UTF-8 valide, sinon
+     * ISO-8859-1 : le même choix que {@link #load}, au prix d'une lecture préalable du fichier.
+     */
+    public static Charset detectCharset(FileChannel channel) throws IOException {
+        Charset charset = charsetFromBom(channel);
+        if (charset != null) return charset;
+        return isValidUtf8(channel) ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+    }
+
+    /** Encodage indiqué par le BOM ; null s'il n'y en a pas. */
+    private static Charset charsetFromBom(FileChannel channel) throws IOException {
+        ByteBuffer head = readHead(channel);
+        if (startsWith(head, 0xEF, 0xBB, 0xBF)) return StandardCharsets.UTF_8;
+        if (startsWith(head, 0xFE, 0xFF)) return StandardCharsets.UTF_16BE;
+        if (startsWith(head, 0xFF, 0xFE)) return StandardCharsets.UTF_16LE;
+        return null;
+    }
+
+    /** Longueur du BOM présent en tête de fichier pour cet encodage (0 si absent). */
+    private static int bomLength(FileChannel channel, Charset charset) throws IOException {
+        ByteBuffer head = readHead(channel);
+        if (charset.equals(StandardCharsets.UTF_8) && startsWith(head, 0xEF, 0xBB, 0xBF)) return 3;
+        if (charset.equals(StandardCharsets.UTF_16BE) && startsWith(head, 0xFE, 0xFF)) return 2;
+        if (charset.equals(StandardCharsets.UTF_16LE) && startsWith(head, 0xFF, 0xFE)) return 2;
+        return 0; // "UTF-16" générique : le décodeur consomme lui-même le BOM
+    }
+
+    /** Vérifie tout le fichier par fenêtres projetées, sans garder les caractères décodés. */
+    private static boolean isValidUtf8(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        CharBuffer out = CharBuffer.allocate(CHECK_BUFFER_SIZE);
+        while (true) {
+            long window = Math.min(WINDOW_SIZE, size - position);
+            ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, position, window);
+            boolean last = position + window >= size;
+            while (true) {
+                out.clear();
+                CoderResult result = decoder.decode(in, out, last);
+                if (result.isError()) return false;
+                if (!result.isOverflow()) break;
+            }
+            // Comme decode : une séquence coupée en fin de fenêtre est relue dans la suivante
+            position += in.position();
+            if (last) return true;
+        }
+    }
+
+    private static ByteBuffer readHead(FileChannel channel) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(3);
+        channel.read(head, 0);
+        head.flip();
+        return head;
+    }
+
+    private static boolean startsWith(ByteBuffer head, int... bytes) {
+        if (head.remaining() < bytes.length) return false;
+        for (int i = 0; i < bytes.length; i++) {
+            if ((head.get(i) & 0xFF) != bytes[i]) return false;
+        }
+        return true;
+    }
+
+    private static CharBuffer grow(CharBuffer out) throws CharacterCodingException {
+        if (out.capacity() >= MAX_CHARS) throw new CharacterCodingException();
+        CharBuffer bigger = CharBuffer.allocate((int) Math.min(MAX_CHARS, out.capacity() * 2L));
+        out.flip();
+        bigger.put(out);
+        return bigger;
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Ensemble à adressage ouvert d'empreintes 64 bits, sans objet par entrée :
+ * deux tableaux primitifs (empreintes et identifiants), sondage linéaire.
+ *
+ * Une empreinte égale ne suffit pas : l'appelant confirme l'égalité exacte
+ * des clés via {@link Verifier}, ce qui rend le résultat indépendant des collisions.
+ */
+final class FingerprintSet {
+
+    /** Confirme que l'entrée id correspond bien à la clé recherchée. */
+    interface Verifier {
+        boolean sameKey(int id);
+    }
+
+    private static final long EMPTY = 0L;
+
+    private long[] fingerprints;
+    private int[] ids;
+    private int mask;
+    private int size;
+
+    FingerprintSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize) * 2 - 1) << 1;
+        fingerprints = new long[capacity];
+        ids = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Cherche une entrée de même clé ; si aucune n'existe, enregistre newId.
+     * @return l'identifiant de l'entrée existante, ou -1 si newId vient d'être ajouté
+     */
+    int addIfAbsent(long fingerprint, int newId, Verifier verifier) {
+        if (fingerprint == EMPTY) fingerprint = 1L; // 0 est réservé aux cases vides
+        int slot = (int) mix(fingerprint) & mask;
+        while (fingerprints[slot] != EMPTY) {
+            if (fingerprints[slot] == fingerprint && verifier.sameKey(ids[slot])) return ids[slot];
+            slot = (slot + 1) & mask;
+        }
+        fingerprints[slot] = fingerprint;
+        ids[slot] = newId;
+        if (++size * 2 > fingerprints.length) grow();
+        return -1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldFingerprints = fingerprints;
+        int[] oldIds = ids;
+        fingerprints = new long[oldFingerprints.length * 2];
+        ids = new int[oldIds.length * 2];
+        mask = fingerprints.length - 1;
+        for (int i = 0; i < oldFingerprints.length; i++) {
+            long fp = oldFingerprints[i];
+            if (fp == EMPTY) continue;
+            int slot = (int) mix(fp) & mask;
+            while (fingerprints[slot] != EMPTY) slot = (slot + 1) & mask;
+            fingerprints[slot] = fp;
+            ids[slot] = oldIds[i];
+        }
+    }
+
+    /** Empreinte FNV-1a 64 bits d'une chaîne. */
+    static long fingerprint(CharSequence key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /** Brassage final (murmur3 fmix64) pour répartir les empreintes dans la table. */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,165 @@
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Comptage des occurrences selon les mêmes règles de casse et d'accents que le dédoublonnage.
+ * Chaque mot distinct est représenté par sa première occurrence ; les comptes sont
+ * stockés dans un tableau primitif indexé comme les mots.
+ */
+public class FrequencyCounter {
+
+    /** Ordre de sortie du mode fréquence. */
+    public enum Order {
+        /** Ordre alphabétique (croissant ou décroissant selon les options). */
+        ALPHABETICAL,
+        /** Plus fréquent d'abord ; à égalité, ordre alphabétique des options. */
+        BY_COUNT
+    }
+
+    private final SortOptions options;
+    private final List<String> words = new ArrayList<String>();
+    private int[] counts = new int[16];
+    private final FingerprintSet seen;
+
+    // Mot et clé en cours de vérification par le Verifier
+    private String currentWord;
+    private String currentKey;
+    private final FingerprintSet.Verifier verifier = new FingerprintSet.Verifier() {
+        public boolean sameKey(int id) {
+            String kept = words.get(id);
+            return kept.equals(currentWord) || SortEngine.dedupKey(kept, options).equals(currentKey);
+        }
+    };
+
+    public FrequencyCounter(SortOptions options, int expectedSize) {
+        this.options = options;
+        this.seen = new FingerprintSet(Math.min(expectedSize, 1 << 20));
+    }
+
+    public void add(String word) {
+        currentWord = word;
+        currentKey = SortEngine.dedupKey(word, options);
+        int id = seen.addIfAbsent(FingerprintSet.fingerprint(currentKey), words.size(), verifier);
+        if (id < 0) {
+            id = words.size();
+            words.add(word);
+            if (id == counts.length) counts = Arrays.copyOf(counts, counts.length * 2);
+        }
+        counts[id]++;
+    }
+
+    public void addAll(List<String> list) {
+        for (String w : list) add(w);
+    }
+
+    /** Comme addAll(list), avec avancement (étape NORMALIZE) et annulation entre deux blocs. */
+    public void addAll(List<String> list, ProgressListener listener) {
+        int n = list.size();
+        for (int i = 0; i < n; i++) {
+            if (i % SortEngine.PROGRESS_STEP == 0) {
+                SortEngine.checkCancelled(listener);
+                listener.progress(ProgressListener.Phase.NORMALIZE, i, n);
+            }
+            add(list.get(i));
+        }
+        listener.progress(ProgressListener.Phase.NORMALIZE, n, n);
+    }
+
+    /** Premières occurrences des mots distincts, dans l'ordre d'apparition. */
+    public List<String> getWords() {
+        return words;
+    }
+
+    public int getCount(int id) {
+        return counts[id];
+    }
+
+    public int size() {
+        return words.size();
+    }
+
+    /**
+     * Produit les lignes "mot&lt;TAB&gt;nombre" dans l'ordre demandé.
+     * @param topK si positif, seuls les topK premiers mots de l'ordre BY_COUNT sont restitués
+     *             (à égalité de compte, l'ordre alphabétique des options départage, comme BY_COUNT)
+     * @param listener avancement des étapes NORMALIZE, SORT et EMIT, et annulation
+     */
+    public SortResult toResult(Order order, int topK, boolean parallel, ProgressListener listener) {
+        long start = System.nanoTime();
+        boolean top = topK > 0 && topK < words.size();
+        int[] ids = top ? selectTop(topK) : allIds();
+
+        Collator collator = SortEngine.createCollator(options);
+        List<String> selected = new ArrayList<String>(ids.length);
+        for (int id : ids) selected.add(words.get(id));
+        SortEngine.KeyedWord[] keyed = SortEngine.computeKeys(selected, collator, options, parallel, listener);
+        long normalizeMillis = (System.nanoTime() - start) / 1000000L;
+
+        // KeyedWord.index repère la position dans ids ; on le ramène à l'identifiant du mot
+        // pour départager les égalités par ordre d'apparition, comme le tri simple.
+        SortEngine.KeyedWord[] rekeyed = new SortEngine.KeyedWord[keyed.length];
+        for (int i = 0; i < keyed.length; i++) rekeyed[i] = new SortEngine.KeyedWord(keyed[i].word, keyed[i].key, ids[i]);
+
+        start = System.nanoTime();
+        final Comparator<SortEngine.KeyedWord> alphabetical = options.isAscending() ? SortEngine.ASCENDING : SortEngine.DESCENDING;
+        Comparator<SortEngine.KeyedWord> byCount = new Comparator<SortEngine.KeyedWord>() {
+            public int compare(SortEngine.KeyedWord a, SortEngine.KeyedWord b) {
+                int c = counts[b.index] - counts[a.index];
+                return c != 0 ? c : alphabetical.compare(a, b);
+            }
+        };
+        if (top && rekeyed.length > topK) {
+            // Égalités à la frontière du top K : on garde les topK premiers de l'ordre BY_COUNT
+            SortEngine.sortKeyed(rekeyed, byCount, false, parallel, listener);
+            rekeyed = Arrays.copyOf(rekeyed, topK);
+        }
+        Comparator<SortEngine.KeyedWord> comparator = order == Order.BY_COUNT ? byCount : alphabetical;
+        SortEngine.sortKeyed(rekeyed, comparator, options.isRadixSort(), parallel, listener);
+        long sortMillis = (System.nanoTime() - start) / 1000000L;
+
+        String[] lines = new String[rekeyed.length];
+        for (int i = 0; i < rekeyed.length; i++) {
+            if (i % SortEngine.PROGRESS_STEP == 0) {
+                SortEngine.checkCancelled(listener);
+                listener.progress(ProgressListener.Phase.EMIT, i, rekeyed.length);
+            }
+            lines[i] = rekeyed[i].word + '\t' + counts[rekeyed[i].index];
+        }
+        listener.progress(ProgressListener.Phase.EMIT, rekeyed.length, rekeyed.length);
+        return new SortResult(lines, normalizeMillis, sortMillis);
+    }
+
+    private int[] allIds() {
+        int[] ids = new int[words.size()];
+        for (int i = 0; i < ids.length; i++) ids[i] = i;
+        return ids;
+    }
+
+    /**
+     * Candidats du top k, dans l'ordre d'apparition : les k plus grands comptes, trouvés par
+     * un min-tas de taille k, plus tous les mots à égalité avec le k-ième. Les égalités sont
+     * départagées ensuite sur les clés de collation, que seuls les candidats reçoivent.
+     */
+    private int[] selectTop(int k) {
+        // Racine = plus petit des k plus grands comptes
+        PriorityQueue<Integer> heap = new PriorityQueue<Integer>(k);
+        for (int id = 0; id < words.size(); id++) {
+            if (heap.size() < k) heap.add(counts[id]);
+            else if (counts[id] > heap.peek()) {
+                heap.poll();
+                heap.add(counts[id]);
+            }
+        }
+        int threshold = heap.peek();
+        int selected = 0;
+        for (int id = 0; id < words.size(); id++) if (counts[id] >= threshold) selected++;
+        int[] ids = new int[selected];
+        int i = 0;
+        for (int id = 0; id < words.size(); id++) if (counts[id] >= threshold) ids[i++] = id;
+        return ids;
+    }
+}
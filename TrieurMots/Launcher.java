@@ -0,0 +1,25 @@
+import java.util.Arrays;
+
+/**
+ * Point d'entrée du jar : aiguille vers la ligne de commande, le serveur ou l'interface.
+ * Cette classe ne référence aucune classe Swing/AWT : en mode --cli ou --server, aucune
+ * n'est chargée. TrieurDeMotsAlpha, qui importe Swing, n'est chargée qu'en mode graphique.
+ *
+ * Usage : java -jar trieursmots.jar [--cli options... | --server options...]
+ */
+public final class Launcher {
+
+    private Launcher() {
+    }
+
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "";
+        if (mode.equals("--cli")) {
+            TrieurCli.main(Arrays.copyOfRange(args, 1, args.length));
+        } else if (mode.equals("--server")) {
+            SortServer.main(Arrays.copyOfRange(args, 1, args.length));
+        } else {
+            TrieurDeMotsAlpha.main(args);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * Mesure du temps passé par un thread auxiliaire dans chaque étape, transmis par
+ * {@link ProgressListener#phaseTime}. Dans un pipeline, les étapes se recouvrent : leur durée
+ * est le temps de travail cumulé de leurs threads, attente des files exclue (voir pause()).
+ * Une instance par thread.
+ */
+final class PhaseTimer implements ProgressListener {
+
+    private final ProgressListener delegate;
+    private Phase current;
+    private long start;
+
+    PhaseTimer(ProgressListener delegate) {
+        this.delegate = delegate;
+    }
+
+    public void progress(Phase phase, long done, long total) {
+        if (phase != current) {
+            long now = System.nanoTime();
+            close(now);
+            current = phase;
+            start = now;
+        }
+        delegate.progress(phase, done, total);
+    }
+
+    public boolean isCancelled() {
+        return delegate.isCancelled();
+    }
+
+    /** Suspend la mesure (attente d'une file, fin du travail) ; elle reprend au prochain progress(). */
+    void pause() {
+        close(System.nanoTime());
+        current = null;
+    }
+
+    private void close(long now) {
+        if (current != null) delegate.phaseTime(current, now - start);
+    }
+}
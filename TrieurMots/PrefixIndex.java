@@ -0,0 +1,77 @@
+/**
+ * Index de préfixes conservé après le tri : le tableau trié des clés de collation lui-même.
+ *
+ * Une clé de collation commence par les poids primaires de tous les caractères du mot,
+ * terminés par un caractère nul ; les poids primaires d'un préfixe du mot sont donc un préfixe
+ * des siens. Dans le tableau trié, les mots commençant par un même préfixe (casse et accents
+ * ignorés) forment une plage contiguë, trouvée par deux recherches dichotomiques :
+ * O(log n) comparaisons, sans parcourir ni copier les mots.
+ *
+ * Les caractères ignorés par la collation le sont aussi ici : « -rsa » commence par « r ».
+ */
+public class PrefixIndex {
+
+    /** Tous les mots affichés, ordre croissant. */
+    private final SortEngine.KeyedWord[] sorted;
+    /** Affichage en ordre décroissant : les positions sont lues à rebours. */
+    private final boolean reversed;
+    private final SortOptions options;
+
+    PrefixIndex(SortEngine.KeyedWord[] sorted, boolean reversed, SortOptions options) {
+        this.sorted = sorted;
+        this.reversed = reversed;
+        this.options = options;
+    }
+
+    public int size() {
+        return sorted.length;
+    }
+
+    /**
+     * Plage [from, to) des positions, dans l'ordre affiché, des mots commençant par prefix
+     * (comparaison au niveau primaire : casse et accents ignorés). Plage vide si aucun mot.
+     */
+    public int[] range(String prefix) {
+        byte[] key = SortEngine.sortKey(SortEngine.createCollator(options), prefix, options);
+        int length = primaryLength(key);
+        int from = lowerBound(key, length, false);
+        int to = lowerBound(key, length, true);
+        if (reversed) return new int[]{sorted.length - to, sorted.length - from};
+        return new int[]{from, to};
+    }
+
+    /**
+     * Première position dont les poids primaires sont supérieurs ou égaux au préfixe
+     * (strictement supérieurs, préfixe exclu, si after est vrai).
+     */
+    private int lowerBound(byte[] prefix, int prefixLength, boolean after) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = comparePrimary(sorted[mid].key, prefix, prefixLength);
+            if (c < 0 || (after && c == 0)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Compare le début des poids primaires de key au préfixe ; 0 si key commence par le préfixe. */
+    private static int comparePrimary(byte[] key, byte[] prefix, int prefixLength) {
+        int keyLength = primaryLength(key);
+        int n = Math.min(keyLength, prefixLength);
+        for (int i = 0; i < n; i++) {
+            int diff = (key[i] & 0xFF) - (prefix[i] & 0xFF);
+            if (diff != 0) return diff;
+        }
+        return keyLength >= prefixLength ? 0 : -1;
+    }
+
+    /** Longueur en octets des poids primaires : jusqu'au premier caractère nul (2 octets alignés). */
+    static int primaryLength(byte[] key) {
+        for (int i = 0; i + 1 < key.length; i += 2) {
+            if (key[i] == 0 && key[i + 1] == 0) return i;
+        }
+        return key.length;
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ * Suivi d'un traitement long (chargement, tri...) et annulation coopérative.
+ * Les traitements appellent progress() entre deux blocs de travail et s'arrêtent
+ * par une CancellationException dès que isCancelled() répond vrai.
+ */
+public interface ProgressListener {
+
+    /**
+     * Étapes successives d'un traitement. TOKENIZE compte des caractères,
+     * NORMALIZE, SORT et EMIT des mots, LOAD et EXPORT des octets ou des mots.
+     */
+    enum Phase { LOAD, TOKENIZE, NORMALIZE, SORT, EMIT, EXPORT }
+
+    /** Avancement de l'étape en cours : done unités sur total (-1 si inconnu, lecture en flux). */
+    void progress(Phase phase, long done, long total);
+
+    boolean isCancelled();
+
+    /**
+     * Temps passé dans une étape par un thread auxiliaire (étapes concurrentes d'un pipeline,
+     * voir {@link PhaseTimer}). Ignoré par défaut ; cumulé dans les mesures par {@link SortRecorder}.
+     */
+    default void phaseTime(Phase phase, long nanos) {
+    }
+
+    /** Écouteur neutre, pour les appels sans suivi. */
+    ProgressListener NONE = new ProgressListener() {
+        public void progress(Phase phase, long done, long total) { }
+        public boolean isCancelled() { return false; }
+    };
+}
@@ -0,0 +1,118 @@
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Tri MSD (octet de poids fort d'abord) des mots sur les octets de leur clé de collation.
+ * Aucune comparaison de clés complètes : chaque niveau ne lit qu'un octet par mot, et les
+ * longs préfixes communs (URL, identifiants, mots fléchis) ne sont parcourus qu'une fois par niveau.
+ *
+ * Le résultat est exactement celui de Arrays.sort(a, SortEngine.ASCENDING) : les clés égales
+ * sont départagées par KeyedWord.index.
+ *
+ * L'annulation est vérifiée à chaque seau d'au moins SortEngine.PROGRESS_STEP mots, et
+ * l'avancement compte les mots arrivés à leur place définitive.
+ */
+final class RadixSort {
+
+    /** En dessous de cette taille, un tri par insertion est plus rapide qu'un passage de comptage. */
+    static final int INSERTION_THRESHOLD = 32;
+    /** Seau 0 : clé terminée à ce niveau ; seaux 1 à 256 : valeur de l'octet + 1. */
+    private static final int BUCKETS = 257;
+
+    private final SortEngine.KeyedWord[] a;
+    private final SortEngine.KeyedWord[] aux;
+    private final ProgressListener listener;
+    /** Mots à leur place définitive, et valeur au dernier signalement. */
+    private long placed;
+    private long reported;
+
+    private RadixSort(SortEngine.KeyedWord[] a, ProgressListener listener) {
+        this.a = a;
+        this.aux = new SortEngine.KeyedWord[a.length];
+        this.listener = listener;
+    }
+
+    /** @throws java.util.concurrent.CancellationException si le listener demande l'annulation */
+    static void sort(SortEngine.KeyedWord[] a, ProgressListener listener) {
+        new RadixSort(a, listener).sort(0, a.length, 0);
+    }
+
+    /** Trie a[from, to), dont toutes les clés partagent leurs depth premiers octets. */
+    private void sort(int from, int to, int depth) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to, depth);
+            placed(to - from);
+            return;
+        }
+        if (to - from >= SortEngine.PROGRESS_STEP) SortEngine.checkCancelled(listener);
+        int[] start = new int[BUCKETS + 1];
+        // Préfixe commun (même octet pour tous) : on passe au niveau suivant sans rien déplacer
+        while (true) {
+            int first = bucket(a[from].key, depth);
+            int i = from + 1;
+            while (i < to && bucket(a[i].key, depth) == first) i++;
+            if (i < to || first == 0) break;
+            depth++;
+        }
+        for (int i = from; i < to; i++) start[bucket(a[i].key, depth) + 1]++;
+        for (int b = 0; b < BUCKETS; b++) start[b + 1] += start[b];
+
+        // Répartition stable dans aux, puis recopie
+        int[] next = Arrays.copyOf(start, BUCKETS);
+        for (int i = from; i < to; i++) aux[next[bucket(a[i].key, depth)]++] = a[i];
+        System.arraycopy(aux, 0, a, from, to - from);
+
+        // Clés terminées : toutes égales, il ne reste qu'à les ordonner par position d'origine
+        if (start[1] > 1) Arrays.sort(a, from, from + start[1], BY_INDEX);
+        placed(start[1]);
+        for (int b = 1; b < BUCKETS; b++) {
+            int lo = from + start[b];
+            int hi = from + start[b + 1];
+            if (hi - lo > 1) sort(lo, hi, depth + 1);
+            else placed(hi - lo);
+        }
+    }
+
+    private void placed(int count) {
+        placed += count;
+        if (placed - reported >= SortEngine.PROGRESS_STEP) {
+            reported = placed;
+            listener.progress(ProgressListener.Phase.SORT, placed, a.length);
+        }
+    }
+
+    private static int bucket(byte[] key, int depth) {
+        return depth < key.length ? (key[depth] & 0xFF) + 1 : 0;
+    }
+
+    private static void insertionSort(SortEngine.KeyedWord[] a, int from, int to, int depth) {
+        for (int i = from + 1; i < to; i++) {
+            SortEngine.KeyedWord w = a[i];
+            int j = i - 1;
+            while (j >= from && compare(a[j], w, depth) > 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = w;
+        }
+    }
+
+    /** Comme SortEngine.ASCENDING, en sautant les depth octets déjà communs. */
+    private static int compare(SortEngine.KeyedWord x, SortEngine.KeyedWord y, int depth) {
+        byte[] a = x.key;
+        byte[] b = y.key;
+        int n = Math.min(a.length, b.length);
+        for (int i = depth; i < n; i++) {
+            int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (diff != 0) return diff;
+        }
+        if (a.length != b.length) return a.length - b.length;
+        return Integer.compare(x.index, y.index);
+    }
+
+    private static final Comparator<SortEngine.KeyedWord> BY_INDEX = new Comparator<SortEngine.KeyedWord>() {
+        public int compare(SortEngine.KeyedWord a, SortEngine.KeyedWord b) {
+            return Integer.compare(a.index, b.index);
+        }
+    };
+}
@@ -0,0 +1,77 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Export du résultat directement depuis le tableau trié, en UTF-8 et par gros tampons,
+ * sans reconstituer le texte complet en mémoire. Compression gzip en option.
+ */
+public final class ResultExporter {
+
+    public static final String LF = "\n";
+    public static final String CRLF = "\r\n";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** Nombre de mots écrits entre deux points de suivi / d'annulation. */
+    private static final int PROGRESS_STEP = 1 << 16;
+
+    private ResultExporter() {
+    }
+
+    /**
+     * Écrit les mots dans le fichier ; en cas d'échec ou d'annulation, le fichier partiel est supprimé.
+     * @throws CancellationException si le listener demande l'annulation
+     */
+    public static void export(String[] words, File file, String lineSeparator, boolean gzip,
+                              ProgressListener listener) throws IOException {
+        boolean complete = false;
+        Writer out = openWriter(new FileOutputStream(file), gzip);
+        try {
+            write(words, out, lineSeparator, listener);
+            complete = true;
+        } finally {
+            try {
+                out.close();
+            } finally {
+                if (!complete) file.delete();
+            }
+        }
+    }
+
+    /** Writer UTF-8 tamponné, éventuellement compressé, sur le flux donné. */
+    public static Writer openWriter(OutputStream out, boolean gzip) throws IOException {
+        if (gzip) out = new GZIPOutputStream(out, BUFFER_SIZE);
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /** Écrit un mot par ligne ; le Writer n'est ni vidé ni fermé. */
+    public static void write(String[] words, Writer out, String lineSeparator, ProgressListener listener)
+            throws IOException {
+        for (int i = 0; i < words.length; i++) {
+            if (i % PROGRESS_STEP == 0) {
+                if (listener.isCancelled()) throw new CancellationException();
+                listener.progress(ProgressListener.Phase.EXPORT, i, words.length);
+            }
+            out.write(words[i]);
+            out.write(lineSeparator);
+        }
+        listener.progress(ProgressListener.Phase.EXPORT, words.length, words.length);
+    }
+
+    /** Texte complet, construit à la demande (presse-papiers). */
+    public static String join(String[] words, String lineSeparator) {
+        long length = 0;
+        for (String w : words) length += w.length() + lineSeparator.length();
+        if (length > Integer.MAX_VALUE - 8) throw new IllegalStateException("Résultat trop volumineux : " + length + " caractères");
+        StringBuilder sb = new StringBuilder((int) length);
+        for (String w : words) sb.append(w).append(lineSeparator);
+        return sb.toString();
+    }
+}
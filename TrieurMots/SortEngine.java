@@ -0,0 +1,377 @@
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moteur de tri : découpage, dédoublonnage et tri par clés de collation.
+ * Aucune dépendance à Swing, afin d'être utilisable en mode batch (sans écran).
+ */
+public class SortEngine {
+
+    /** Nombre de mots traités entre deux points de contrôle (avancement, annulation). */
+    static final int PROGRESS_STEP = 1 << 14;
+    /** Nombre de caractères découpés entre deux points de contrôle. */
+    static final int TOKENIZE_STEP = 1 << 18;
+
+    /** Modèles de Collator par locale et force (voir createCollator). */
+    private static final ConcurrentMap<String, Collator> COLLATORS = new ConcurrentHashMap<String, Collator>();
+    /** Locales dotées de règles de collation par le JDK : les seules mises en cache, ce qui borne COLLATORS. */
+    private static final Set<Locale> COLLATOR_LOCALES = new HashSet<Locale>(Arrays.asList(Collator.getAvailableLocales()));
+
+    public SortResult sort(CharSequence text, SortOptions options) {
+        return sort(text, options, ProgressListener.NONE);
+    }
+
+    /**
+     * Tri avec suivi d'avancement par étape (découpage, normalisation, tri, restitution).
+     * L'annulation est vérifiée entre deux blocs de travail : le tri s'arrête alors par une
+     * CancellationException et aucun tableau intermédiaire n'est conservé.
+     */
+    public SortResult sort(CharSequence text, SortOptions options, ProgressListener listener) {
+        SortRecorder recorder = new SortRecorder(listener, options.isCountFrequencies() ? "count" : "sort", text);
+        listener = recorder;
+        boolean parallel = isParallel(text, options);
+        List<String> words = tokenize(text, options, parallel, listener);
+        int inputWords = words.size();
+
+        if (options.isCountFrequencies()) {
+            FrequencyCounter counter = new FrequencyCounter(options, words.size());
+            counter.addAll(words, listener);
+            words = null;
+            SortResult result = counter.toResult(options.getFrequencyOrder(), options.getTopK(), parallel, listener);
+            result.setMetrics(recorder.finish(inputWords, counter.size(), result.size(), parallel));
+            return result;
+        }
+        if (options.isRemoveDuplicates()) words = removeDuplicates(words, options, listener);
+
+        Collator collator = createCollator(options);
+
+        // Normalisation unique : chaque mot est converti une seule fois en clé binaire,
+        // au lieu de deux removeAccents() + Collator.compare() par comparaison.
+        long start = System.nanoTime();
+        KeyedWord[] keyed = computeKeys(words, collator, options, parallel, listener);
+        long normalizeMillis = (System.nanoTime() - start) / 1000000L;
+        words = null;
+
+        // L'index d'origine départage les clés égales : l'ordre est total, donc le tri
+        // parallèle (non stable) produit exactement le même résultat que le tri séquentiel,
+        // et l'ordre décroissant est la lecture à rebours de l'ordre croissant.
+        start = System.nanoTime();
+        sortKeyed(keyed, ASCENDING, options.isRadixSort(), parallel, listener);
+        long sortMillis = (System.nanoTime() - start) / 1000000L;
+
+        boolean reversed = !options.isAscending();
+        SortResult result = new SortResult(emit(keyed, reversed, listener), normalizeMillis, sortMillis,
+                new PrefixIndex(keyed, reversed, options));
+        int uniqueWords = options.isRemoveDuplicates() ? keyed.length : countDistinctKeys(keyed);
+        result.setMetrics(recorder.finish(inputWords, uniqueWords, keyed.length, parallel));
+        return result;
+    }
+
+    /** Nombre de clés distinctes d'un tableau trié (mots distincts au sens de la collation). */
+    static int countDistinctKeys(KeyedWord[] sorted) {
+        int distinct = sorted.length > 0 ? 1 : 0;
+        for (int i = 1; i < sorted.length; i++) {
+            if (compareKeys(sorted[i - 1].key, sorted[i].key) != 0) distinct++;
+        }
+        return distinct;
+    }
+
+    static boolean isParallel(CharSequence text, SortOptions options) {
+        return text.length() >= options.getParallelThreshold();
+    }
+
+    /** Arrête le traitement si l'annulation a été demandée. */
+    static void checkCancelled(ProgressListener listener) {
+        if (listener.isCancelled()) throw new CancellationException();
+    }
+
+    /** Découpe le texte en mots, par tranches parallèles pour les grands textes. */
+    static List<String> tokenize(CharSequence text, SortOptions options, boolean parallel, ProgressListener listener) {
+        WordTokenizer tokenizer = new WordTokenizer(options.getSeparators());
+        listener.progress(ProgressListener.Phase.TOKENIZE, 0, text.length());
+        if (parallel) return tokenizeParallel(text, tokenizer, listener);
+        List<String> words = new ArrayList<String>();
+        tokenize(text, 0, text.length(), tokenizer, words, new AtomicLong(), listener);
+        return words;
+    }
+
+    /** Découpe text[from, to) par blocs coupés sur des séparateurs ; done cumule les caractères traités. */
+    private static void tokenize(CharSequence text, int from, int to, WordTokenizer tokenizer, List<String> out,
+                                 AtomicLong done, ProgressListener listener) {
+        while (from < to) {
+            checkCancelled(listener);
+            int end = Math.min(to, from + TOKENIZE_STEP);
+            while (end < to && !tokenizer.isSeparator(text.charAt(end))) end++;
+            tokenizer.tokenize(text, from, end, out);
+            listener.progress(ProgressListener.Phase.TOKENIZE, done.addAndGet(end - from), text.length());
+            from = end;
+        }
+    }
+
+    /** Garde la première occurrence de chaque clé de dédoublonnage, dans l'ordre d'apparition. */
+    static List<String> removeDuplicates(List<String> words, SortOptions options, ProgressListener listener) {
+        FrequencyCounter counter = new FrequencyCounter(options, words.size());
+        counter.addAll(words, listener);
+        return counter.getWords();
+    }
+
+    /** Clés de tri de tous les mots ; KeyedWord.index est la position dans la liste. */
+    static KeyedWord[] computeKeys(List<String> words, Collator collator, SortOptions options, boolean parallel,
+                                   ProgressListener listener) {
+        KeyedWord[] keyed = new KeyedWord[words.size()];
+        listener.progress(ProgressListener.Phase.NORMALIZE, 0, keyed.length);
+        if (parallel) computeKeysParallel(words, keyed, collator, options, listener);
+        else computeKeys(words, keyed, 0, keyed.length, collator, options, new AtomicLong(), listener);
+        return keyed;
+    }
+
+    private static void computeKeys(List<String> words, KeyedWord[] keyed, int from, int to, Collator collator,
+                                    SortOptions options, AtomicLong done, ProgressListener listener) {
+        for (int i = from; i < to; i += PROGRESS_STEP) {
+            checkCancelled(listener);
+            int end = Math.min(to, i + PROGRESS_STEP);
+            for (int j = i; j < end; j++) {
+                String w = words.get(j);
+                keyed[j] = new KeyedWord(w, sortKey(collator, w, options), j);
+            }
+            listener.progress(ProgressListener.Phase.NORMALIZE, done.addAndGet(end - i), keyed.length);
+        }
+    }
+
+    /** Calcul des clés par tranches ; chaque tâche travaille sur sa copie du Collator (synchronisé). */
+    private static void computeKeysParallel(final List<String> words, final KeyedWord[] keyed, final Collator collator,
+                                            final SortOptions options, final ProgressListener listener) {
+        int chunks = ForkJoinPool.getCommonPoolParallelism() * 4;
+        int chunkSize = Math.max(1, (keyed.length + chunks - 1) / chunks);
+        final AtomicLong done = new AtomicLong();
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int from = 0; from < keyed.length; from += chunkSize) {
+            final int start = from;
+            final int end = Math.min(keyed.length, from + chunkSize);
+            tasks.add(new Callable<Void>() {
+                public Void call() {
+                    computeKeys(words, keyed, start, end, (Collator) collator.clone(), options, done, listener);
+                    return null;
+                }
+            });
+        }
+        invokeAll(tasks);
+    }
+
+    /**
+     * Tri du tableau de clés, par radix MSD si demandé (ordre ASCENDING uniquement).
+     * L'annulation est vérifiée par seau (radix) ou toutes les CHECK_COMPARISONS comparaisons ;
+     * un tri annulé laisse le tableau partiellement trié, il n'est plus utilisé.
+     */
+    static void sortKeyed(KeyedWord[] keyed, Comparator<KeyedWord> order, boolean radix, boolean parallel,
+                          ProgressListener listener) {
+        checkCancelled(listener);
+        listener.progress(ProgressListener.Phase.SORT, 0, keyed.length);
+        if (radix && order == ASCENDING) RadixSort.sort(keyed, listener);
+        else if (parallel) Arrays.parallelSort(keyed, new CheckedOrder(order, keyed.length, listener));
+        else Arrays.sort(keyed, new CheckedOrder(order, keyed.length, listener));
+        listener.progress(ProgressListener.Phase.SORT, keyed.length, keyed.length);
+        checkCancelled(listener);
+    }
+
+    /** Mots du tableau trié, dans l'ordre ou à rebours. */
+    static String[] emit(KeyedWord[] keyed, boolean reversed, ProgressListener listener) {
+        String[] sorted = new String[keyed.length];
+        for (int i = 0; i < keyed.length; i++) {
+            if (i % PROGRESS_STEP == 0) {
+                checkCancelled(listener);
+                listener.progress(ProgressListener.Phase.EMIT, i, keyed.length);
+            }
+            sorted[i] = keyed[reversed ? keyed.length - 1 - i : i].word;
+        }
+        listener.progress(ProgressListener.Phase.EMIT, keyed.length, keyed.length);
+        return sorted;
+    }
+
+    /**
+     * Découpage parallèle : le texte est coupé en tranches sur des séparateurs,
+     * chaque tranche est découpée indépendamment puis les résultats sont concaténés dans l'ordre.
+     */
+    private static List<String> tokenizeParallel(final CharSequence text, final WordTokenizer tokenizer,
+                                                 final ProgressListener listener) {
+        int chunks = ForkJoinPool.getCommonPoolParallelism() * 4;
+        int chunkSize = Math.max(1, text.length() / chunks);
+        final AtomicLong done = new AtomicLong();
+        List<Callable<List<String>>> tasks = new ArrayList<Callable<List<String>>>();
+        int from = 0;
+        while (from < text.length()) {
+            int to = Math.min(text.length(), from + chunkSize);
+            while (to < text.length() && !tokenizer.isSeparator(text.charAt(to))) to++;
+            final int start = from;
+            final int end = to;
+            tasks.add(new Callable<List<String>>() {
+                public List<String> call() {
+                    List<String> out = new ArrayList<String>();
+                    tokenize(text, start, end, tokenizer, out, done, listener);
+                    return out;
+                }
+            });
+            from = to;
+        }
+        List<String> words = new ArrayList<String>();
+        for (List<String> part : invokeAll(tasks)) words.addAll(part);
+        return words;
+    }
+
+    private static <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<T>(tasks.size());
+        try {
+            for (Future<T> f : ForkJoinPool.commonPool().invokeAll(tasks)) results.add(f.get());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tri interrompu", ex);
+        } catch (ExecutionException ex) {
+            // L'annulation (CancellationException) remonte telle quelle
+            if (ex.getCause() instanceof RuntimeException) throw (RuntimeException) ex.getCause();
+            throw new IllegalStateException(ex.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Collator configuré selon les options de casse et d'accents.
+     * Un modèle est gardé par locale et par force ; chaque appel en reçoit une copie,
+     * car les méthodes de RuleBasedCollator sont synchronisées. Une locale sans règles
+     * propres (voir {@link #isCollatorAvailable}) reçoit un Collator neuf, jamais mis en cache.
+     */
+    public static Collator createCollator(SortOptions options) {
+        int strength;
+        if (options.isIgnoreCase() && !options.isIgnoreAccents()) strength = Collator.SECONDARY;
+        else if (options.isIgnoreCase() && options.isIgnoreAccents()) strength = Collator.PRIMARY;
+        else strength = Collator.TERTIARY;
+        if (!isCollatorAvailable(options.getLocale())) {
+            Collator collator = Collator.getInstance(options.getLocale());
+            collator.setStrength(strength);
+            return collator;
+        }
+
+        String cacheKey = options.getLocale().toLanguageTag() + '/' + strength;
+        Collator prototype = COLLATORS.get(cacheKey);
+        if (prototype == null) {
+            prototype = Collator.getInstance(options.getLocale());
+            prototype.setStrength(strength);
+            Collator previous = COLLATORS.putIfAbsent(cacheKey, prototype);
+            if (previous != null) prototype = previous;
+        }
+        return (Collator) prototype.clone();
+    }
+
+    /** Vrai si le JDK fournit des règles de collation pour cette locale (Collator.getAvailableLocales). */
+    public static boolean isCollatorAvailable(Locale locale) {
+        return COLLATOR_LOCALES.contains(locale);
+    }
+
+    /** Clé de dédoublonnage : minuscules et/ou sans accents selon les options. */
+    public static String dedupKey(String word, SortOptions options) {
+        String key = word;
+        if (options.isIgnoreCase()) key = key.toLowerCase(options.getLocale());
+        if (options.isIgnoreAccents()) key = removeAccents(key);
+        return key;
+    }
+
+    /** Octets de la CollationKey du mot (sans accents si demandé). */
+    public static byte[] sortKey(Collator collator, String word, SortOptions options) {
+        String source = options.isIgnoreAccents() ? removeAccents(word) : word;
+        return collator.getCollationKey(source).toByteArray();
+    }
+
+    /** Comparaison non signée octet par octet, équivalente à CollationKey.compareTo(). */
+    public static int compareKeys(byte[] a, byte[] b) {
+        int n = Math.min(a.length, b.length);
+        for (int i = 0; i < n; i++) {
+            int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (diff != 0) return diff;
+        }
+        return a.length - b.length;
+    }
+
+    public static String removeAccents(String text) {
+        return AccentFolder.fold(text);
+    }
+
+    /**
+     * Mot accompagné de sa clé de tri précalculée (octets d'une CollationKey)
+     * et de sa position d'origine, qui départage les clés égales.
+     */
+    static final class KeyedWord {
+        final String word;
+        final byte[] key;
+        final int index;
+
+        KeyedWord(String word, byte[] key, int index) {
+            this.word = word;
+            this.key = key;
+            this.index = index;
+        }
+    }
+
+    /**
+     * Ordre de tri qui vérifie l'annulation et signale l'avancement toutes les CHECK_COMPARISONS
+     * comparaisons. L'avancement est estimé d'après les n·log2(n) comparaisons d'un tri complet.
+     * Le décompte n'est pas synchronisé (tri parallèle) : seule la fréquence des vérifications en dépend.
+     */
+    private static final class CheckedOrder implements Comparator<KeyedWord> {
+        private static final int CHECK_COMPARISONS = 1 << 16;
+
+        private final Comparator<KeyedWord> order;
+        private final int size;
+        private final double expected;
+        private final ProgressListener listener;
+        private int countdown = CHECK_COMPARISONS;
+        private long checks;
+
+        CheckedOrder(Comparator<KeyedWord> order, int size, ProgressListener listener) {
+            this.order = order;
+            this.size = size;
+            this.expected = Math.max(1, size * (Math.log(Math.max(2, size)) / Math.log(2)));
+            this.listener = listener;
+        }
+
+        public int compare(KeyedWord a, KeyedWord b) {
+            if (--countdown <= 0) check();
+            return order.compare(a, b);
+        }
+
+        private synchronized void check() {
+            countdown = CHECK_COMPARISONS;
+            checkCancelled(listener);
+            checks++;
+            long done = (long) Math.min(size - 1, size * (checks * (double) CHECK_COMPARISONS / expected));
+            listener.progress(ProgressListener.Phase.SORT, done, size);
+        }
+    }
+
+    /** Croissant ; à clés égales, ordre d'apparition (comme un tri stable). */
+    static final Comparator<KeyedWord> ASCENDING = new Comparator<KeyedWord>() {
+        public int compare(KeyedWord a, KeyedWord b) {
+            int c = compareKeys(a.key, b.key);
+            return c != 0 ? c : a.index - b.index;
+        }
+    };
+
+    /** Exactement l'inverse de ASCENDING, comme l'ancien Collections.reverse. */
+    static final Comparator<KeyedWord> DESCENDING = new Comparator<KeyedWord>() {
+        public int compare(KeyedWord a, KeyedWord b) {
+            return ASCENDING.compare(b, a);
+        }
+    };
+}
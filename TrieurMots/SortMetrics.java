@@ -0,0 +1,110 @@
+import java.util.Locale;
+
+/**
+ * Mesures d'un tri : durée de chaque étape, mémoire allouée, pic du tas, pauses GC
+ * et nombres de mots. Produites par {@link SortRecorder}, exposées par {@link SortResult#getMetrics()},
+ * par JMX ({@link SortMetricsMXBean}) et en ligne JSON par le mode batch.
+ *
+ * Les octets alloués sont ceux du thread appelant : en mode parallèle, les allocations des
+ * threads du ForkJoinPool ne sont pas comptées. Le pic du tas et les pauses GC sont globaux
+ * à la JVM et incluent donc les tris lancés en même temps (mode serveur).
+ *
+ * Les durées d'étape sont découpées sur le thread qui lance le tri. En mode batch (--batch),
+ * les étapes se recouvrent : découpage et normalisation y sont le temps de travail cumulé
+ * des threads de lecture et de normalisation (attente des files exclue), et leur somme peut
+ * dépasser la durée totale.
+ */
+public class SortMetrics {
+
+    long timestamp;
+    String mode;
+    boolean parallel;
+    long inputChars;
+    int inputWords;
+    int uniqueWords;
+    int outputWords;
+    long totalNanos;
+    long tokenizeNanos;
+    long normalizeNanos;
+    long sortNanos;
+    long emitNanos;
+    long callerAllocatedBytes = -1;
+    long peakHeapBytes = -1;
+    long gcCount;
+    long gcMillis;
+
+    /** Début du tri, en millisecondes depuis l'époque Unix. */
+    public long getTimestamp() { return timestamp; }
+    /** "sort", "count" (mode fréquence) ou "external" (tri externe). */
+    public String getMode() { return mode; }
+    public boolean isParallel() { return parallel; }
+    public long getInputChars() { return inputChars; }
+    public int getInputWords() { return inputWords; }
+    /**
+     * Mots distincts : clés de dédoublonnage distinctes en mode doublons ou fréquence,
+     * sinon clés de tri distinctes (comptées sur le tableau trié) ; -1 si inconnu.
+     */
+    public int getUniqueWords() { return uniqueWords; }
+    public int getOutputWords() { return outputWords; }
+    public double getTotalMillis() { return millis(totalNanos); }
+    public double getTokenizeMillis() { return millis(tokenizeNanos); }
+    /** Dédoublonnage ou comptage compris. */
+    public double getNormalizeMillis() { return millis(normalizeNanos); }
+    public double getSortMillis() { return millis(sortNanos); }
+    public double getEmitMillis() { return millis(emitNanos); }
+    /**
+     * Octets alloués par le thread qui a lancé le tri, seul : les tâches du ForkJoinPool et
+     * les threads d'un pipeline ne sont pas comptés. -1 si la JVM ne le mesure pas.
+     */
+    public long getCallerAllocatedBytes() { return callerAllocatedBytes; }
+    /**
+     * Plus forte occupation du tas relevée au début, à la fin et à chaque changement d'étape.
+     * Mesure globale au processus : elle inclut les tris concurrents et les objets non encore collectés.
+     */
+    public long getPeakHeapBytes() { return peakHeapBytes; }
+    public long getGcCount() { return gcCount; }
+    public long getGcMillis() { return gcMillis; }
+
+    /** Débit sur l'ensemble du tri, en mots d'entrée par seconde. */
+    public long getWordsPerSecond() {
+        return totalNanos <= 0 ? 0 : (long) (inputWords * 1e9 / totalNanos);
+    }
+
+    /** Une ligne JSON, pour le suivi des performances d'un lancement à l'autre. */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder(400);
+        sb.append('{');
+        sb.append("\"timestamp\":").append(timestamp);
+        sb.append(",\"mode\":\"").append(mode).append('"');
+        sb.append(",\"parallel\":").append(parallel);
+        sb.append(",\"inputChars\":").append(inputChars);
+        sb.append(",\"inputWords\":").append(inputWords);
+        sb.append(",\"uniqueWords\":").append(uniqueWords);
+        sb.append(",\"outputWords\":").append(outputWords);
+        sb.append(",\"totalMs\":").append(format(getTotalMillis()));
+        sb.append(",\"tokenizeMs\":").append(format(getTokenizeMillis()));
+        sb.append(",\"normalizeMs\":").append(format(getNormalizeMillis()));
+        sb.append(",\"sortMs\":").append(format(getSortMillis()));
+        sb.append(",\"emitMs\":").append(format(getEmitMillis()));
+        sb.append(",\"wordsPerSecond\":").append(getWordsPerSecond());
+        sb.append(",\"callerAllocatedBytes\":").append(callerAllocatedBytes);
+        sb.append(",\"peakHeapBytes\":").append(peakHeapBytes);
+        sb.append(",\"gcCount\":").append(gcCount);
+        sb.append(",\"gcMs\":").append(gcMillis);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
@@ -0,0 +1,24 @@
+/**
+ * Interface JMX des mesures de tri, enregistrée sous {@link SortMetricsRegistry#OBJECT_NAME}
+ * (jconsole, VisualVM...). LastRun est publié comme donnée composite.
+ */
+public interface SortMetricsMXBean {
+
+    /** Nombre de tris mesurés depuis le démarrage (ou le dernier reset). */
+    long getRunCount();
+
+    long getTotalInputWords();
+
+    double getTotalMillis();
+
+    /** Débit cumulé : mots d'entrée par seconde de tri. */
+    long getAverageWordsPerSecond();
+
+    /** Mesures du dernier tri, ou null avant le premier. */
+    SortMetrics getLastRun();
+
+    /** Dernier tri au format JSON (chaîne vide avant le premier). */
+    String getLastRunJson();
+
+    void reset();
+}
@@ -0,0 +1,80 @@
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registre des mesures de tri de la JVM : dernier tri et cumuls, publiés par JMX.
+ * Chaque tri y est enregistré ; l'enregistrement JMX lui-même n'est fait qu'à la demande
+ * (interface et serveur), pour ne pas démarrer le serveur MBean en mode batch.
+ */
+public final class SortMetricsRegistry implements SortMetricsMXBean {
+
+    public static final String OBJECT_NAME = "io.github.technerdsam.trieursmots:type=SortMetrics";
+
+    private static final SortMetricsRegistry INSTANCE = new SortMetricsRegistry();
+
+    private long runCount;
+    private long totalInputWords;
+    private long totalNanos;
+    private SortMetrics lastRun;
+    private boolean registered;
+
+    private SortMetricsRegistry() {
+    }
+
+    public static SortMetricsRegistry get() {
+        return INSTANCE;
+    }
+
+    /** Enregistre le MBean sur le serveur de la plateforme (sans effet s'il l'est déjà). */
+    public synchronized void registerMBean() {
+        if (registered) return;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) server.registerMBean(this, name);
+            registered = true;
+        } catch (JMException ex) {
+            System.err.println("Mesures JMX indisponibles : " + ex.getMessage());
+        }
+    }
+
+    synchronized void record(SortMetrics metrics) {
+        runCount++;
+        totalInputWords += metrics.inputWords;
+        totalNanos += metrics.totalNanos;
+        lastRun = metrics;
+    }
+
+    public synchronized long getRunCount() {
+        return runCount;
+    }
+
+    public synchronized long getTotalInputWords() {
+        return totalInputWords;
+    }
+
+    public synchronized double getTotalMillis() {
+        return totalNanos / 1e6;
+    }
+
+    public synchronized long getAverageWordsPerSecond() {
+        return totalNanos <= 0 ? 0 : (long) (totalInputWords * 1e9 / totalNanos);
+    }
+
+    public synchronized SortMetrics getLastRun() {
+        return lastRun;
+    }
+
+    public synchronized String getLastRunJson() {
+        return lastRun == null ? "" : lastRun.toJson();
+    }
+
+    public synchronized void reset() {
+        runCount = 0;
+        totalInputWords = 0;
+        totalNanos = 0;
+        lastRun = null;
+    }
+}
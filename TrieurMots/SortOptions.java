@@ -0,0 +1,58 @@
+import java.util.Locale;
+
+/**
+ * Options d'un tri, équivalentes aux cases à cocher de l'interface.
+ * Partagées par l'interface Swing et le mode ligne de commande.
+ */
+public class SortOptions {
+
+    private boolean ascending = true;
+    private boolean ignoreCase = false;
+    private boolean ignoreAccents = false;
+    private boolean removeDuplicates = false;
+    private Locale locale = Locale.FRENCH;
+    /** Taille de texte (en caractères) à partir de laquelle le tri utilise tous les cœurs. */
+    private int parallelThreshold = 1 << 20;
+    /** Caractères séparant les mots (voir {@link WordTokenizer}). */
+    private String separators = WordTokenizer.DEFAULT_SEPARATORS;
+    /** Mode fréquence : une ligne "mot<TAB>nombre" par mot distinct. */
+    private boolean countFrequencies = false;
+    private FrequencyCounter.Order frequencyOrder = FrequencyCounter.Order.ALPHABETICAL;
+    /** En mode fréquence, ne garder que les K mots les plus fréquents (0 : tous). */
+    private int topK = 0;
+    /** Tri radix MSD sur les octets des clés au lieu du tri par comparaison (voir {@link RadixSort}). */
+    private boolean radixSort = false;
+
+    public boolean isAscending() { return ascending; }
+    public void setAscending(boolean ascending) { this.ascending = ascending; }
+
+    public boolean isIgnoreCase() { return ignoreCase; }
+    public void setIgnoreCase(boolean ignoreCase) { this.ignoreCase = ignoreCase; }
+
+    public boolean isIgnoreAccents() { return ignoreAccents; }
+    public void setIgnoreAccents(boolean ignoreAccents) { this.ignoreAccents = ignoreAccents; }
+
+    public boolean isRemoveDuplicates() { return removeDuplicates; }
+    public void setRemoveDuplicates(boolean removeDuplicates) { this.removeDuplicates = removeDuplicates; }
+
+    public Locale getLocale() { return locale; }
+    public void setLocale(Locale locale) { this.locale = locale; }
+
+    public int getParallelThreshold() { return parallelThreshold; }
+    public void setParallelThreshold(int parallelThreshold) { this.parallelThreshold = parallelThreshold; }
+
+    public String getSeparators() { return separators; }
+    public void setSeparators(String separators) { this.separators = separators; }
+
+    public boolean isCountFrequencies() { return countFrequencies; }
+    public void setCountFrequencies(boolean countFrequencies) { this.countFrequencies = countFrequencies; }
+
+    public FrequencyCounter.Order getFrequencyOrder() { return frequencyOrder; }
+    public void setFrequencyOrder(FrequencyCounter.Order frequencyOrder) { this.frequencyOrder = frequencyOrder; }
+
+    public int getTopK() { return topK; }
+    public void setTopK(int topK) { this.topK = topK; }
+
+    public boolean isRadixSort() { return radixSort; }
+    public void setRadixSort(boolean radixSort) { this.radixSort = radixSort; }
+}
@@ -0,0 +1,126 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+/**
+ * Enregistreur des mesures d'un tri. Il s'intercale entre le moteur et l'écouteur de l'appelant :
+ * la durée de chaque étape est découpée d'après les changements d'étape signalés par progress()
+ * depuis le thread qui a lancé le tri, sans instrumentation supplémentaire dans le moteur.
+ * Les threads auxiliaires d'un pipeline ajoutent leur temps de travail par phaseTime().
+ */
+final class SortRecorder implements ProgressListener {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final List<GarbageCollectorMXBean> COLLECTORS = ManagementFactory.getGarbageCollectorMXBeans();
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private final ProgressListener delegate;
+    private final SortMetrics metrics = new SortMetrics();
+    private final long threadId = Thread.currentThread().getId();
+    private final long startNanos;
+    private final long startAllocated;
+    private final long startGcCount;
+    private final long startGcMillis;
+
+    private Phase current;
+    private long phaseStart;
+    /** Plus forte occupation du tas relevée aux changements d'étape. */
+    private long peakHeap;
+
+    SortRecorder(ProgressListener delegate, String mode, CharSequence text) {
+        this.delegate = delegate;
+        metrics.mode = mode;
+        metrics.inputChars = text == null ? -1 : text.length();
+        metrics.timestamp = System.currentTimeMillis();
+        // Pas de resetPeakUsage() : il est global à la JVM et fausserait les tris concurrents (serveur)
+        peakHeap = heapUsed();
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean gc : COLLECTORS) {
+            count += Math.max(0, gc.getCollectionCount());
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        startGcCount = count;
+        startGcMillis = time;
+        startAllocated = allocatedBytes(threadId);
+        startNanos = System.nanoTime();
+    }
+
+    public synchronized void progress(Phase phase, long done, long total) {
+        // Les tâches parallèles signalent aussi leur avancement : seul le thread du tri change d'étape
+        if (phase != current && Thread.currentThread().getId() == threadId) {
+            long now = System.nanoTime();
+            closePhase(now);
+            current = phase;
+            phaseStart = now;
+            peakHeap = Math.max(peakHeap, heapUsed());
+        }
+        delegate.progress(phase, done, total);
+    }
+
+    public boolean isCancelled() {
+        return delegate.isCancelled();
+    }
+
+    @Override
+    public synchronized void phaseTime(Phase phase, long nanos) {
+        addPhaseNanos(phase, nanos);
+    }
+
+    /**
+     * Termine la mesure et la publie dans le registre JMX.
+     * @param uniqueWords mots distincts, -1 si inconnu
+     */
+    synchronized SortMetrics finish(int inputWords, int uniqueWords, int outputWords, boolean parallel) {
+        long now = System.nanoTime();
+        closePhase(now);
+        current = null;
+        metrics.totalNanos = now - startNanos;
+        long allocated = allocatedBytes(threadId);
+        metrics.callerAllocatedBytes = allocated < 0 || startAllocated < 0 ? -1 : allocated - startAllocated;
+
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean gc : COLLECTORS) {
+            count += Math.max(0, gc.getCollectionCount());
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        metrics.peakHeapBytes = Math.max(peakHeap, heapUsed());
+        metrics.gcCount = count - startGcCount;
+        metrics.gcMillis = time - startGcMillis;
+        metrics.inputWords = inputWords;
+        metrics.uniqueWords = uniqueWords;
+        metrics.outputWords = outputWords;
+        metrics.parallel = parallel;
+        SortMetricsRegistry.get().record(metrics);
+        return metrics;
+    }
+
+    private void closePhase(long now) {
+        if (current != null) addPhaseNanos(current, now - phaseStart);
+    }
+
+    private void addPhaseNanos(Phase phase, long elapsed) {
+        switch (phase) {
+            case TOKENIZE: metrics.tokenizeNanos += elapsed; break;
+            case NORMALIZE: metrics.normalizeNanos += elapsed; break;
+            case SORT: metrics.sortNanos += elapsed; break;
+            case EMIT: metrics.emitNanos += elapsed; break;
+            default: break;
+        }
+    }
+
+    private static long heapUsed() {
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    /** Octets alloués depuis sa création par le thread donné, ou -1 (extension HotSpot absente). */
+    private static long allocatedBytes(long threadId) {
+        if (!(THREADS instanceof com.sun.management.ThreadMXBean)) return -1;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+        if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) return -1;
+        return threads.getThreadAllocatedBytes(threadId);
+    }
+}
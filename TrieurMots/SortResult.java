@@ -0,0 +1,34 @@
+/**
+ * Résultat d'un tri : les mots dans l'ordre final, les temps de chaque phase
+ * et, hors mode fréquence, l'index de préfixes sur ces mots.
+ */
+public class SortResult {
+
+    private final String[] words;
+    private final long normalizeMillis;
+    private final long sortMillis;
+    private final PrefixIndex prefixIndex;
+    private SortMetrics metrics;
+
+    public SortResult(String[] words, long normalizeMillis, long sortMillis) {
+        this(words, normalizeMillis, sortMillis, null);
+    }
+
+    public SortResult(String[] words, long normalizeMillis, long sortMillis, PrefixIndex prefixIndex) {
+        this.words = words;
+        this.normalizeMillis = normalizeMillis;
+        this.sortMillis = sortMillis;
+        this.prefixIndex = prefixIndex;
+    }
+
+    public String[] getWords() { return words; }
+    public int size() { return words.length; }
+    public long getNormalizeMillis() { return normalizeMillis; }
+    public long getSortMillis() { return sortMillis; }
+    /** Index de préfixes aligné sur getWords(), ou null (mode fréquence). */
+    public PrefixIndex getPrefixIndex() { return prefixIndex; }
+    /** Mesures du tri (durées par étape, mémoire, GC), ou null. */
+    public SortMetrics getMetrics() { return metrics; }
+
+    void setMetrics(SortMetrics metrics) { this.metrics = metrics; }
+}
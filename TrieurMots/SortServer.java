@@ -0,0 +1,369 @@
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mode serveur : moteur de tri résident, interrogé en HTTP sur l'interface de boucle locale.
+ * Les appels répétés depuis d'autres programmes ne paient plus le démarrage de la JVM,
+ * et les Collator restent en cache par locale et par force (voir {@link SortEngine#createCollator}).
+ *
+ * Usage : java Launcher --server [--port n] [--max-body taille]
+ *
+ * POST /sort?desc&amp;ignore-case&amp;ignore-accents&amp;dedup&amp;count&amp;by-count&amp;top=k&amp;locale=fr
+ *           &amp;split-punctuation&amp;separators=...&amp;radix&amp;crlf
+ *
+ * Le corps de la requête est le texte à trier (UTF-8, ou le charset du Content-Type). Le tri se
+ * fait en mémoire, par conception : le corps est lu en entier avant le découpage, dans la limite
+ * de --max-body (413 au-delà) ; seul le tri externe de la ligne de commande lit en flux ;
+ * la réponse, un mot par ligne en UTF-8, est envoyée par morceaux (gzip si le client l'accepte).
+ * Chaque requête est traitée sur son propre thread virtuel quand la JVM en dispose (Java 21+).
+ */
+public class SortServer {
+
+    public static final int DEFAULT_PORT = 8377;
+    /** Compte du texte, des mots et des clés de collation : le tri en mémoire occupe plusieurs fois le corps. */
+    private static final int BODY_MEMORY_FACTOR = 16;
+
+    private static final String USAGE =
+            "Usage : java Launcher --server [--port n] [--max-body taille]\n"
+            + "  --port <n>          Port d'écoute sur 127.0.0.1 (défaut : " + DEFAULT_PORT + ", 0 : port libre)\n"
+            + "  --max-body <taille> Taille maximale d'un corps de requête, ex. 64m (défaut : 1/"
+            + BODY_MEMORY_FACTOR + " du tas)\n"
+            + "  -h, --help          Afficher cette aide\n"
+            + "Requête : POST /sort?<options>, corps = texte à trier.\n"
+            + "  Options : desc, ignore-case, ignore-accents, dedup, count, by-count, top=<k>,\n"
+            + "            locale=<tag>, split-punctuation, separators=<car>, radix, crlf";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long maxBodyBytes;
+
+    public SortServer(int port) throws IOException {
+        this(port, defaultMaxBodyBytes());
+    }
+
+    public SortServer(int port, long maxBodyBytes) throws IOException {
+        this.maxBodyBytes = maxBodyBytes;
+        // Boucle locale uniquement : le service n'est pas exposé sur le réseau
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/sort", new SortHandler());
+    }
+
+    public static long defaultMaxBodyBytes() {
+        return Runtime.getRuntime().maxMemory() / BODY_MEMORY_FACTOR;
+    }
+
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        long maxBodyBytes = defaultMaxBodyBytes();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--port") && i + 1 < args.length) {
+                try {
+                    port = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException ex) {
+                    System.err.println("Port invalide : " + args[i]);
+                    System.exit(2);
+                }
+            } else if (arg.equals("--max-body") && i + 1 < args.length) {
+                maxBodyBytes = TrieurCli.parseSize(args[++i]);
+                if (maxBodyBytes <= 0) {
+                    System.err.println("Taille invalide : " + args[i]);
+                    System.exit(2);
+                }
+            } else if (arg.equals("-h") || arg.equals("--help")) {
+                System.out.println(USAGE);
+                return;
+            } else {
+                System.err.println("Option inconnue : " + arg);
+                System.err.println(USAGE);
+                System.exit(2);
+            }
+        }
+
+        final SortServer sortServer;
+        try {
+            sortServer = new SortServer(port, maxBodyBytes);
+        } catch (IOException ex) {
+            System.err.println("Erreur : " + ex.getMessage());
+            System.exit(1);
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            public void run() {
+                sortServer.stop();
+            }
+        }));
+        sortServer.start();
+        System.err.println("Serveur de tri à l'écoute sur http://127.0.0.1:" + sortServer.getPort() + "/sort");
+    }
+
+    /** Préchauffe le moteur, publie les mesures par JMX puis accepte les requêtes. */
+    public void start() {
+        warmUp();
+        SortMetricsRegistry.get().reset();
+        SortMetricsRegistry.get().registerMBean();
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Threads virtuels si la JVM en dispose (Java 21+), via la réflexion puisque le projet
+     * reste compilé pour Java 8 ; sinon un pool de threads à la demande.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            final AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "trieur-requete-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+    }
+
+    /**
+     * Premier tri sur un petit texte pour chaque combinaison casse/accents :
+     * charge les Collator de la locale par défaut et compile à chaud le découpage et les clés.
+     */
+    private static void warmUp() {
+        StringBuilder sample = new StringBuilder();
+        String[] words = {"été", "Été", "ETE", "cote", "côte", "coté", "Côté", "œuvre", "zèbre", "Ça", "abc"};
+        for (int i = 0; i < 2000; i++) sample.append(words[i % words.length]).append(i % 7 == 0 ? ",\n" : " ");
+        for (int mode = 0; mode < 4; mode++) {
+            SortOptions options = new SortOptions();
+            options.setIgnoreCase((mode & 1) != 0);
+            options.setIgnoreAccents((mode & 2) != 0);
+            options.setRemoveDuplicates(true);
+            new SortEngine().sort(sample, options);
+        }
+    }
+
+    /** Options de tri lues dans la chaîne de requête ; IllegalArgumentException si invalide. */
+    static SortOptions parseOptions(Map<String, String> params) {
+        SortOptions options = new SortOptions();
+        for (Map.Entry<String, String> p : params.entrySet()) {
+            String name = p.getKey();
+            String value = p.getValue();
+            if (name.equals("desc")) options.setAscending(!isTrue(value));
+            else if (name.equals("ignore-case")) options.setIgnoreCase(isTrue(value));
+            else if (name.equals("ignore-accents")) options.setIgnoreAccents(isTrue(value));
+            else if (name.equals("dedup")) options.setRemoveDuplicates(isTrue(value));
+            else if (name.equals("count")) options.setCountFrequencies(isTrue(value));
+            else if (name.equals("by-count")) {
+                if (isTrue(value)) options.setFrequencyOrder(FrequencyCounter.Order.BY_COUNT);
+            }
+            else if (name.equals("top")) {
+                try {
+                    options.setTopK(Integer.parseInt(value));
+                } catch (NumberFormatException ex) {
+                    throw new IllegalArgumentException("Nombre invalide : " + value);
+                }
+            }
+            else if (name.equals("locale")) {
+                // Locales fournies par le JDK uniquement : le client ne fait pas grossir le cache de Collator
+                Locale locale = Locale.forLanguageTag(value);
+                if (!SortEngine.isCollatorAvailable(locale)) throw new IllegalArgumentException("Locale non disponible : " + value);
+                options.setLocale(locale);
+            }
+            else if (name.equals("separators")) options.setSeparators(value);
+            else if (name.equals("radix")) options.setRadixSort(isTrue(value));
+            else if (!name.equals("split-punctuation") && !name.equals("crlf")) {
+                throw new IllegalArgumentException("Option inconnue : " + name);
+            }
+        }
+        // Appliquée en dernier pour compléter un éventuel jeu de séparateurs personnalisé
+        if (isTrue(params.get("split-punctuation"))) {
+            options.setSeparators(options.getSeparators() + WordTokenizer.PUNCTUATION);
+        }
+        return options;
+    }
+
+    /** Paramètres de la chaîne de requête, dans l'ordre ; "desc" seul vaut "desc=true". */
+    static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new LinkedHashMap<String, String>();
+        if (rawQuery == null || rawQuery.isEmpty()) return params;
+        try {
+            for (String pair : rawQuery.split("&")) {
+                if (pair.isEmpty()) continue;
+                int eq = pair.indexOf('=');
+                String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), "UTF-8");
+                String value = eq < 0 ? "true" : URLDecoder.decode(pair.substring(eq + 1), "UTF-8");
+                params.put(name, value);
+            }
+        } catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return params;
+    }
+
+    private static boolean isTrue(String value) {
+        return value != null && !value.equals("false") && !value.equals("0");
+    }
+
+    /** Encodage du corps d'après le Content-Type (défaut : UTF-8). */
+    private static Charset requestCharset(Headers headers) {
+        String contentType = headers.getFirst("Content-Type");
+        if (contentType != null) {
+            for (String part : contentType.split(";")) {
+                part = part.trim();
+                if (part.regionMatches(true, 0, "charset=", 0, 8)) {
+                    return Charset.forName(part.substring(8).replace("\"", "").trim());
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    /** Valeur de Content-Length ; -1 si elle est illisible (le flux borné s'en charge alors). */
+    private static long parseLength(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(body);
+        out.close();
+    }
+
+    /** Corps trop volumineux pour être trié en mémoire. */
+    private static final class BodyTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        BodyTooLargeException(long limit) {
+            super("Corps de requête trop volumineux (limite : " + limit + " octets)");
+        }
+    }
+
+    /** Flux du corps qui échoue dès que la limite est dépassée, sans rien lire au-delà. */
+    private static final class BoundedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) count(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, (int) Math.min(len, limit - count + 1));
+            if (n > 0) count(n);
+            return n;
+        }
+
+        private void count(int n) throws IOException {
+            count += n;
+            if (count > limit) throw new BodyTooLargeException(limit);
+        }
+    }
+
+    /** POST /sort : un tri par requête, sans état partagé hors du cache de Collator. */
+    private final class SortHandler implements HttpHandler {
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                if (!exchange.getRequestMethod().equals("POST")) {
+                    exchange.getResponseHeaders().set("Allow", "POST");
+                    sendError(exchange, 405, "Méthode non autorisée : utilisez POST");
+                    return;
+                }
+                Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+                SortOptions options;
+                Charset charset;
+                try {
+                    options = parseOptions(params);
+                    charset = requestCharset(exchange.getRequestHeaders());
+                } catch (IllegalArgumentException ex) {
+                    sendError(exchange, 400, ex.getMessage());
+                    return;
+                }
+                String lineSeparator = isTrue(params.get("crlf")) ? ResultExporter.CRLF : ResultExporter.LF;
+                // Refus immédiat si la longueur annoncée dépasse déjà la limite
+                String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+                if (contentLength != null && parseLength(contentLength) > maxBodyBytes) {
+                    sendError(exchange, 413, new BodyTooLargeException(maxBodyBytes).getMessage());
+                    return;
+                }
+
+                SortResult result;
+                try {
+                    StringBuilder text = new StringBuilder();
+                    InputStream body = new BoundedInputStream(exchange.getRequestBody(), maxBodyBytes);
+                    TrieurCli.readAll(new InputStreamReader(body, charset), text);
+                    result = new SortEngine().sort(text, options);
+                } catch (BodyTooLargeException ex) {
+                    sendError(exchange, 413, ex.getMessage());
+                    return;
+                } catch (RuntimeException ex) {
+                    sendError(exchange, 500, "Erreur : " + ex.getMessage());
+                    return;
+                }
+
+                String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+                boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+                Headers headers = exchange.getResponseHeaders();
+                headers.set("Content-Type", "text/plain; charset=utf-8");
+                headers.set("X-Word-Count", String.valueOf(result.size()));
+                if (gzip) headers.set("Content-Encoding", "gzip");
+                // Longueur 0 : réponse envoyée par morceaux, au fil de l'écriture
+                exchange.sendResponseHeaders(200, 0);
+                Writer out = ResultExporter.openWriter(exchange.getResponseBody(), gzip);
+                ResultExporter.write(result.getWords(), out, lineSeparator, ProgressListener.NONE);
+                out.close();
+            } finally {
+                exchange.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Cache de tri d'une session de l'interface : garde les mots du dernier texte trié
+ * avec leurs clés, dans l'ordre croissant, et réutilise ce travail quand c'est possible.
+ * <ul>
+ *   <li>même texte, autre sens de tri : simple lecture à rebours du tableau trié ;</li>
+ *   <li>même texte, doublons activés/désactivés : filtrage des clés déjà triées ;</li>
+ *   <li>texte complété à la fin : seuls les nouveaux mots sont découpés, triés puis fusionnés.</li>
+ * </ul>
+ * Tout changement de casse, d'accents, de langue ou de séparateurs, ou une modification
+ * au milieu du texte, relance un tri complet. Le mode fréquence n'est pas mis en cache.
+ */
+public class SortSession {
+
+    private CharSequence text;
+    private List<String> words;
+    /** Tous les mots, ordre croissant ; KeyedWord.index = position dans words. */
+    private SortEngine.KeyedWord[] sorted;
+    /** Premières occurrences (par position dans words) au sens du dédoublonnage ; calculé à la demande. */
+    private boolean[] firstOccurrences;
+
+    // Options qui déterminent les clés de tri du cache
+    private boolean ignoreCase;
+    private boolean ignoreAccents;
+    private Locale locale;
+    private String separators;
+
+    public SortResult sort(CharSequence newText, SortOptions options) {
+        return sort(newText, options, ProgressListener.NONE);
+    }
+
+    /**
+     * Tri avec suivi d'avancement et annulation coopérative. Une reconstruction annulée
+     * laisse le cache vide ; un ajout annulé laisse le cache précédent intact.
+     */
+    public synchronized SortResult sort(CharSequence newText, SortOptions options, ProgressListener listener) {
+        if (options.isCountFrequencies()) return new SortEngine().sort(newText, options, listener);
+        SortRecorder recorder = new SortRecorder(listener, "sort", newText);
+        listener = recorder;
+
+        long normalizeMillis = 0;
+        long sortMillis = 0;
+        if (sorted == null || !sameKeyOptions(options)) {
+            long[] timings = rebuild(newText, options, listener);
+            normalizeMillis = timings[0];
+            sortMillis = timings[1];
+        } else if (!sameText(newText)) {
+            long[] timings = isAppend(newText) ? append(newText, options, listener) : rebuild(newText, options, listener);
+            normalizeMillis = timings[0];
+            sortMillis = timings[1];
+        }
+
+        long start = System.nanoTime();
+        SortEngine.KeyedWord[] view = options.isRemoveDuplicates() ? removeDuplicates(options, listener) : sorted;
+        String[] result = new String[view.length];
+        for (int i = 0; i < view.length; i++) {
+            if (i % SortEngine.PROGRESS_STEP == 0) {
+                SortEngine.checkCancelled(listener);
+                listener.progress(ProgressListener.Phase.EMIT, i, view.length);
+            }
+            // Décroissant : DESCENDING est exactement l'inverse de ASCENDING
+            result[i] = view[options.isAscending() ? i : view.length - 1 - i].word;
+        }
+        listener.progress(ProgressListener.Phase.EMIT, view.length, view.length);
+        sortMillis += (System.nanoTime() - start) / 1000000L;
+        SortResult sortResult = new SortResult(result, normalizeMillis, sortMillis,
+                new PrefixIndex(view, !options.isAscending(), options));
+        int uniqueWords = options.isRemoveDuplicates() ? view.length : SortEngine.countDistinctKeys(view);
+        sortResult.setMetrics(recorder.finish(words.size(), uniqueWords, view.length,
+                SortEngine.isParallel(newText, options)));
+        return sortResult;
+    }
+
+    /** Libère le cache (zone de saisie effacée, nouveau fichier). */
+    public synchronized void clear() {
+        text = null;
+        words = null;
+        sorted = null;
+        firstOccurrences = null;
+    }
+
+    private long[] rebuild(CharSequence newText, SortOptions options, ProgressListener listener) {
+        clear();
+        boolean parallel = SortEngine.isParallel(newText, options);
+        List<String> all = SortEngine.tokenize(newText, options, parallel, listener);
+
+        long start = System.nanoTime();
+        SortEngine.KeyedWord[] keyed = SortEngine.computeKeys(all, SortEngine.createCollator(options), options,
+                parallel, listener);
+        long normalizeMillis = (System.nanoTime() - start) / 1000000L;
+
+        start = System.nanoTime();
+        SortEngine.sortKeyed(keyed, SortEngine.ASCENDING, options.isRadixSort(), parallel, listener);
+        long sortMillis = (System.nanoTime() - start) / 1000000L;
+
+        remember(newText, all, keyed, options);
+        return new long[]{normalizeMillis, sortMillis};
+    }
+
+    /**
+     * Texte complété à la fin. Le dernier mot de l'ancien texte peut se prolonger
+     * (« abc » devenu « abcdef ») : il est retiré puis redécoupé avec la suite.
+     */
+    private long[] append(CharSequence newText, SortOptions options, ProgressListener listener) {
+        WordTokenizer tokenizer = new WordTokenizer(options.getSeparators());
+        int from = text.length();
+        while (from > 0 && !tokenizer.isSeparator(text.charAt(from - 1))) from--;
+
+        List<String> tail = new ArrayList<String>();
+        tokenizer.tokenize(text, from, text.length(), tail);
+        List<String> all = words;
+        SortEngine.KeyedWord[] base = sorted;
+        if (!tail.isEmpty()) {
+            // Le dernier mot est toujours le dernier découpé : on le retire du tableau trié
+            int last = all.size() - 1;
+            all = new ArrayList<String>(all.subList(0, last));
+            SortEngine.KeyedWord[] without = new SortEngine.KeyedWord[base.length - 1];
+            int j = 0;
+            for (SortEngine.KeyedWord k : base) if (k.index != last) without[j++] = k;
+            base = without;
+        } else {
+            all = new ArrayList<String>(all);
+        }
+
+        List<String> added = new ArrayList<String>();
+        listener.progress(ProgressListener.Phase.TOKENIZE, 0, newText.length() - from);
+        tokenizer.tokenize(newText, from, newText.length(), added);
+        listener.progress(ProgressListener.Phase.TOKENIZE, newText.length() - from, newText.length() - from);
+
+        long start = System.nanoTime();
+        Collator collator = SortEngine.createCollator(options);
+        SortEngine.KeyedWord[] keyed = new SortEngine.KeyedWord[added.size()];
+        for (int i = 0; i < keyed.length; i++) {
+            if (i % SortEngine.PROGRESS_STEP == 0) {
+                SortEngine.checkCancelled(listener);
+                listener.progress(ProgressListener.Phase.NORMALIZE, i, keyed.length);
+            }
+            String w = added.get(i);
+            keyed[i] = new SortEngine.KeyedWord(w, SortEngine.sortKey(collator, w, options), all.size() + i);
+        }
+        long normalizeMillis = (System.nanoTime() - start) / 1000000L;
+
+        start = System.nanoTime();
+        SortEngine.sortKeyed(keyed, SortEngine.ASCENDING, options.isRadixSort(), false, listener);
+        SortEngine.KeyedWord[] merged = merge(base, keyed);
+        long sortMillis = (System.nanoTime() - start) / 1000000L;
+
+        all.addAll(added);
+        remember(newText, all, merged, options);
+        return new long[]{normalizeMillis, sortMillis};
+    }
+
+    /** Fusion linéaire de deux tableaux triés. */
+    private static SortEngine.KeyedWord[] merge(SortEngine.KeyedWord[] a, SortEngine.KeyedWord[] b) {
+        SortEngine.KeyedWord[] out = new SortEngine.KeyedWord[a.length + b.length];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            out[k++] = SortEngine.ASCENDING.compare(a[i], b[j]) <= 0 ? a[i++] : b[j++];
+        }
+        while (i < a.length) out[k++] = a[i++];
+        while (j < b.length) out[k++] = b[j++];
+        return out;
+    }
+
+    /**
+     * Dédoublonnage sur le tableau trié : garde les premières occurrences, repérées sur toute
+     * la liste comme le fait {@link SortEngine} (FrequencyCounter sur la clé de dédoublonnage).
+     * Deux mots de même clé de dédoublonnage n'ont pas forcément la même clé de tri
+     * (« ǅ » et « Ǆ » en minuscules valent « ǆ », mais le Collator les distingue) :
+     * on ne peut donc pas se limiter aux groupes de clés de tri égales.
+     */
+    private SortEngine.KeyedWord[] removeDuplicates(SortOptions options, ProgressListener listener) {
+        if (firstOccurrences == null) {
+            FrequencyCounter counter = new FrequencyCounter(options, words.size());
+            boolean[] first = new boolean[words.size()];
+            for (int i = 0; i < first.length; i++) {
+                if (i % SortEngine.PROGRESS_STEP == 0) {
+                    SortEngine.checkCancelled(listener);
+                    listener.progress(ProgressListener.Phase.NORMALIZE, i, first.length);
+                }
+                int before = counter.size();
+                counter.add(words.get(i));
+                first[i] = counter.size() > before;
+            }
+            listener.progress(ProgressListener.Phase.NORMALIZE, first.length, first.length);
+            firstOccurrences = first;
+        }
+        List<SortEngine.KeyedWord> kept = new ArrayList<SortEngine.KeyedWord>(sorted.length);
+        for (SortEngine.KeyedWord k : sorted) {
+            if (firstOccurrences[k.index]) kept.add(k);
+        }
+        return kept.toArray(new SortEngine.KeyedWord[kept.size()]);
+    }
+
+    private void remember(CharSequence newText, List<String> all, SortEngine.KeyedWord[] keyed, SortOptions options) {
+        text = newText;
+        words = all;
+        sorted = keyed;
+        firstOccurrences = null;
+        ignoreCase = options.isIgnoreCase();
+        ignoreAccents = options.isIgnoreAccents();
+        locale = options.getLocale();
+        separators = options.getSeparators();
+    }
+
+    private boolean sameKeyOptions(SortOptions options) {
+        return ignoreCase == options.isIgnoreCase()
+                && ignoreAccents == options.isIgnoreAccents()
+                && locale.equals(options.getLocale())
+                && separators.equals(options.getSeparators());
+    }
+
+    private boolean sameText(CharSequence newText) {
+        if (newText == text) return true;
+        return newText instanceof String && text instanceof String && newText.equals(text);
+    }
+
+    private boolean isAppend(CharSequence newText) {
+        return newText instanceof String && text instanceof String
+                && newText.length() > text.length() && ((String) newText).startsWith((String) text);
+    }
+}
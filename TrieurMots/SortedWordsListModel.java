@@ -0,0 +1,120 @@
+import javax.swing.AbstractListModel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Modèle de liste adossé directement au tableau trié produit par le moteur.
+ * Avec une hauteur de cellule fixe, la JList ne construit que les lignes visibles :
+ * aucun texte n'est concaténé ni mis en page pour les mots hors écran.
+ * Un filtre par préfixe se réduit à une fenêtre [from, to) sur ce même tableau.
+ */
+public class SortedWordsListModel extends AbstractListModel<String> {
+
+    private static final long serialVersionUID = 1L;
+    private static final String[] EMPTY = new String[0];
+
+    private String[] words = EMPTY;
+    // Fenêtre affichée (filtre par préfixe) ; tout le tableau par défaut
+    private int from = 0;
+    private int to = 0;
+    /** Première position de chaque initiale (minuscule, sans accent), pour le saut par lettre. */
+    private Map<Character, Integer> firstIndexByLetter = new HashMap<Character, Integer>();
+    /** Vrai si les mots de chaque initiale se suivent (tri alphabétique) : recherche en O(1). */
+    private boolean lettersContiguous = true;
+
+    public int getSize() {
+        return to - from;
+    }
+
+    public String getElementAt(int index) {
+        return words[from + index];
+    }
+
+    /** Mots affichés (copie de la fenêtre si un filtre est actif). */
+    public String[] getWords() {
+        if (from == 0 && to == words.length) return words;
+        return Arrays.copyOfRange(words, from, to);
+    }
+
+    public void setWords(String[] newWords) {
+        int oldSize = getSize();
+        words = EMPTY;
+        from = to = 0;
+        firstIndexByLetter = new HashMap<Character, Integer>();
+        if (oldSize > 0) fireIntervalRemoved(this, 0, oldSize - 1);
+
+        Map<Character, Integer> index = new HashMap<Character, Integer>();
+        boolean contiguous = true;
+        Character previous = null;
+        for (int i = 0; i < newWords.length; i++) {
+            Character letter = initial(newWords[i]);
+            if (letter.equals(previous)) continue;
+            // Initiale déjà vue plus haut : l'ordre n'est pas alphabétique (tri par fréquence)
+            if (index.containsKey(letter)) contiguous = false;
+            else index.put(letter, i);
+            previous = letter;
+        }
+        words = newWords;
+        to = newWords.length;
+        firstIndexByLetter = index;
+        lettersContiguous = contiguous;
+        if (newWords.length > 0) fireIntervalAdded(this, 0, newWords.length - 1);
+    }
+
+    /** N'affiche que words[newFrom, newTo) ; setWindow(0, words.length) retire le filtre. */
+    public void setWindow(int newFrom, int newTo) {
+        if (newFrom == from && newTo == to) return;
+        int oldSize = getSize();
+        from = to = 0;
+        if (oldSize > 0) fireIntervalRemoved(this, 0, oldSize - 1);
+        from = newFrom;
+        to = newTo;
+        if (to > from) fireIntervalAdded(this, 0, to - from - 1);
+    }
+
+    /** Nombre total de mots, filtre compris. */
+    public int getTotalSize() {
+        return words.length;
+    }
+
+    /**
+     * Position du prochain mot affiché commençant par cette lettre (casse et accents ignorés),
+     * à partir de startIndex compris, en revenant au début (ou à la fin) de la liste ; -1 si aucun.
+     * Même contrat que JList.getNextMatch : une même touche répétée passe au mot suivant.
+     * @param forward sens de la recherche
+     */
+    public int nextIndexOfLetter(char letter, int startIndex, boolean forward) {
+        Character key = initial(String.valueOf(letter));
+        Integer first = firstIndexByLetter.get(key);
+        if (first == null || first >= to || startIndex < 0 || startIndex >= getSize()) return -1;
+        int start = from + startIndex;
+        if (initial(words[start]).equals(key)) return startIndex;
+        if (!forward || !lettersContiguous) return scan(key, startIndex, forward);
+
+        // Mots de l'initiale d'un seul tenant à partir de first : soit le bloc suit start,
+        // soit il le précède et la recherche revient au début de la fenêtre
+        if (first >= from) return first - from;
+        // Bloc commencé avant la fenêtre : il ne peut se poursuivre qu'en tête de fenêtre
+        return initial(words[from]).equals(key) ? 0 : -1;
+    }
+
+    /** Parcours de toute la fenêtre, pour un ordre non alphabétique ou une recherche à rebours. */
+    private int scan(Character key, int startIndex, boolean forward) {
+        int size = getSize();
+        int step = forward ? 1 : size - 1;
+        for (int n = 1, i = (startIndex + step) % size; n < size; n++, i = (i + step) % size) {
+            if (initial(words[from + i]).equals(key)) return i;
+        }
+        return -1;
+    }
+
+    private static Character initial(String word) {
+        char c = word.charAt(0);
+        if (c >= 128) {
+            String folded = SortEngine.removeAccents(String.valueOf(c));
+            if (!folded.isEmpty()) c = folded.charAt(0);
+        }
+        return Character.toLowerCase(c);
+    }
+}
@@ -0,0 +1,281 @@
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Mode ligne de commande (batch) du Trieur de Mots.
+ * N'utilise que le moteur de tri : aucune classe Swing/AWT n'est chargée, que cette classe
+ * soit lancée directement ou par {@link Launcher} (java -jar trieursmots.jar --cli).
+ * TrieurDeMotsAlpha --cli fonctionne aussi, mais cette classe d'interface charge Swing/AWT.
+ *
+ * Usage : java TrieurCli [options] [fichier...]
+ */
+public class TrieurCli {
+
+    private static final String USAGE =
+            "Usage : java TrieurCli [options] [fichier...]\n"
+            + "  Sans fichier (ou avec '-'), le texte est lu sur l'entrée standard (UTF-8 par défaut).\n"
+            + "  --desc              Ordre décroissant (Z → A)\n"
+            + "  --ignore-case       Ignorer la casse (a = A)\n"
+            + "  --ignore-accents    Ignorer les accents (é = e)\n"
+            + "  --dedup             Supprimer les doublons\n"
+            + "  --count             Compter les occurrences : une ligne \"mot<TAB>nombre\" par mot\n"
+            + "  --by-count          Avec --count : plus fréquents d'abord\n"
+            + "  --top <k>           Avec --count : seulement les k mots les plus fréquents\n"
+            + "  --locale <tag>      Locale de tri (défaut : fr)\n"
+            + "  --split-punctuation Séparer aussi sur la ponctuation (. : ! ? etc.)\n"
+            + "  --separators <car>  Jeu de séparateurs personnalisé (remplace celui par défaut)\n"
+            + "  --parallel-threshold <n>  Taille de texte (caractères) déclenchant le tri parallèle\n"
+            + "  --radix             Tri radix sur les octets des clés (listes à longs préfixes communs)\n"
+            + "  --external          Tri externe sur disque (entrées plus grandes que la mémoire)\n"
+            + "  --memory <taille>   Budget mémoire du tri externe, ex. 512m, 2g (défaut : 1/4 du tas)\n"
+            + "  --temp-dir <rép>    Répertoire des fichiers temporaires du tri externe\n"
+            + "  --batch             Tri par lots : fichiers, répertoires ou motifs (\"listes/*.txt\"),\n"
+            + "                      lus et normalisés en parallèle, fusionnés dans le budget --memory\n"
+            + "  --per-file <rép>    Avec --batch : un résultat trié par fichier, écrit dans <rép>\n"
+            + "  --threads <n>       Avec --batch : threads par étape (défaut : nombre de cœurs)\n"
+            + "  --charset <nom>     Encodage des entrées (défaut : détecté, BOM puis UTF-8 puis ISO-8859-1)\n"
+            + "  --gzip              Compresser le résultat (automatique si le fichier finit par .gz)\n"
+            + "  --crlf              Fins de ligne Windows (\\r\\n) au lieu de \\n\n"
+            + "  -o, --output <f>    Écrire le résultat dans un fichier (défaut : sortie standard)\n"
+            + "  --metrics           Écrire les mesures du tri (une ligne JSON) sur la sortie d'erreur\n"
+            + "  --metrics-file <f>  Ajouter la ligne JSON des mesures à la fin du fichier\n"
+            + "  -h, --help          Afficher cette aide";
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /** Exécute le tri et retourne le code de sortie du processus. */
+    public static int run(String[] args) {
+        SortOptions options = new SortOptions();
+        List<String> inputs = new ArrayList<String>();
+        String output = null;
+        boolean external = false;
+        boolean batch = false;
+        File perFileDir = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long memoryBudget = ExternalSorter.defaultMemoryBudget();
+        File tempDir = null;
+        Charset charset = null;
+        boolean gzip = false;
+        String lineSeparator = ResultExporter.LF;
+        boolean metricsToStderr = false;
+        String metricsFile = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--desc")) options.setAscending(false);
+            else if (arg.equals("--asc")) options.setAscending(true);
+            else if (arg.equals("--ignore-case")) options.setIgnoreCase(true);
+            else if (arg.equals("--ignore-accents")) options.setIgnoreAccents(true);
+            else if (arg.equals("--dedup")) options.setRemoveDuplicates(true);
+            else if (arg.equals("--count")) options.setCountFrequencies(true);
+            else if (arg.equals("--by-count")) options.setFrequencyOrder(FrequencyCounter.Order.BY_COUNT);
+            else if (arg.equals("--top") && i + 1 < args.length) {
+                try {
+                    options.setTopK(Integer.parseInt(args[++i]));
+                } catch (NumberFormatException ex) {
+                    System.err.println("Nombre invalide : " + args[i]);
+                    return 2;
+                }
+            }
+            else if (arg.equals("--locale") && i + 1 < args.length) options.setLocale(Locale.forLanguageTag(args[++i]));
+            else if (arg.equals("--split-punctuation")) options.setSeparators(options.getSeparators() + WordTokenizer.PUNCTUATION);
+            else if (arg.equals("--separators") && i + 1 < args.length) options.setSeparators(args[++i]);
+            else if (arg.equals("--parallel-threshold") && i + 1 < args.length) {
+                try {
+                    options.setParallelThreshold(Integer.parseInt(args[++i]));
+                } catch (NumberFormatException ex) {
+                    System.err.println("Seuil invalide : " + args[i]);
+                    return 2;
+                }
+            }
+            else if (arg.equals("--radix")) options.setRadixSort(true);
+            else if (arg.equals("--external")) external = true;
+            else if (arg.equals("--memory") && i + 1 < args.length) {
+                memoryBudget = parseSize(args[++i]);
+                if (memoryBudget <= 0) {
+                    System.err.println("Taille mémoire invalide : " + args[i]);
+                    return 2;
+                }
+            }
+            else if (arg.equals("--temp-dir") && i + 1 < args.length) tempDir = new File(args[++i]);
+            else if (arg.equals("--batch")) batch = true;
+            else if (arg.equals("--per-file") && i + 1 < args.length) perFileDir = new File(args[++i]);
+            else if (arg.equals("--threads") && i + 1 < args.length) {
+                try {
+                    threads = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException ex) {
+                    threads = 0;
+                }
+                if (threads < 1) {
+                    System.err.println("Nombre de threads invalide : " + args[i]);
+                    return 2;
+                }
+            }
+            else if (arg.equals("--charset") && i + 1 < args.length) {
+                try {
+                    charset = Charset.forName(args[++i]);
+                } catch (IllegalArgumentException ex) {
+                    System.err.println("Encodage inconnu : " + args[i]);
+                    return 2;
+                }
+            }
+            else if (arg.equals("--gzip")) gzip = true;
+            else if (arg.equals("--crlf")) lineSeparator = ResultExporter.CRLF;
+            else if ((arg.equals("-o") || arg.equals("--output")) && i + 1 < args.length) output = args[++i];
+            else if (arg.equals("--metrics")) metricsToStderr = true;
+            else if (arg.equals("--metrics-file") && i + 1 < args.length) metricsFile = args[++i];
+            else if (arg.equals("-h") || arg.equals("--help")) {
+                System.out.println(USAGE);
+                return 0;
+            } else if (arg.startsWith("-") && !arg.equals("-")) {
+                System.err.println("Option inconnue : " + arg);
+                System.err.println(USAGE);
+                return 2;
+            } else inputs.add(arg);
+        }
+        if (inputs.isEmpty()) inputs.add("-");
+        if (output != null && output.endsWith(".gz")) gzip = true;
+        if ((external || batch) && options.isCountFrequencies()) {
+            System.err.println("--count n'est pas disponible avec --external ni --batch.");
+            return 2;
+        }
+        if (perFileDir != null && (!batch || output != null)) {
+            System.err.println("--per-file s'utilise avec --batch, sans -o.");
+            return 2;
+        }
+        if (batch && inputs.contains("-")) {
+            System.err.println("--batch ne lit que des fichiers, pas l'entrée standard.");
+            return 2;
+        }
+
+        Writer out = null;
+        SortMetrics metrics;
+        try {
+            if (batch) {
+                SortRecorder recorder = new SortRecorder(ProgressListener.NONE, "batch", null);
+                List<File> files = BatchSorter.expand(inputs);
+                BatchSorter sorter = new BatchSorter(options, memoryBudget, tempDir, threads, charset);
+                sorter.setProgressListener(recorder);
+                long written;
+                if (perFileDir != null) {
+                    written = sorter.sortEach(files, perFileDir, gzip, lineSeparator);
+                } else {
+                    out = openWriter(output, gzip);
+                    written = sorter.sortMerged(files, out, lineSeparator);
+                }
+                int inputWords = (int) Math.min(Integer.MAX_VALUE, sorter.getWordCount());
+                metrics = recorder.finish(inputWords, -1, (int) Math.min(Integer.MAX_VALUE, written), threads > 1);
+            } else if (external) {
+                SortRecorder recorder = new SortRecorder(ProgressListener.NONE, "external", null);
+                ExternalSorter sorter = new ExternalSorter(options, memoryBudget, tempDir);
+                sorter.setProgressListener(recorder);
+                try {
+                    for (String input : inputs) {
+                        Reader reader = openReader(input, charset);
+                        try {
+                            sorter.addAll(reader);
+                        } finally {
+                            if (!input.equals("-")) reader.close();
+                        }
+                    }
+                    out = openWriter(output, gzip);
+                    long written = sorter.writeTo(out, lineSeparator);
+                    int inputWords = (int) Math.min(Integer.MAX_VALUE, sorter.getWordCount());
+                    metrics = recorder.finish(inputWords, -1, (int) Math.min(Integer.MAX_VALUE, written), false);
+                } finally {
+                    sorter.close();
+                }
+            } else {
+                CharSequence text;
+                if (inputs.size() == 1 && !inputs.get(0).equals("-")) {
+                    // Fichier unique : projeté en mémoire et trié sans copie intermédiaire
+                    text = FileLoader.load(new File(inputs.get(0)), charset, ProgressListener.NONE);
+                } else {
+                    // Entrées jointes par un séparateur du jeu courant : aucun mot ne chevauche deux fichiers
+                    String separators = options.getSeparators();
+                    char joiner = separators.isEmpty() ? '\n' : separators.charAt(0);
+                    StringBuilder sb = new StringBuilder();
+                    for (String input : inputs) {
+                        if (input.equals("-")) readAll(openReader(input, charset), sb);
+                        else sb.append(FileLoader.load(new File(input), charset, ProgressListener.NONE));
+                        sb.append(joiner);
+                    }
+                    text = sb;
+                }
+                SortResult result = new SortEngine().sort(text, options);
+                out = openWriter(output, gzip);
+                ResultExporter.write(result.getWords(), out, lineSeparator, ProgressListener.NONE);
+                metrics = result.getMetrics();
+            }
+            if (metricsToStderr) System.err.println(metrics.toJson());
+            if (metricsFile != null) appendLine(metricsFile, metrics.toJson());
+            return 0;
+        } catch (IOException ex) {
+            System.err.println("Erreur : " + ex.getMessage());
+            return 1;
+        } finally {
+            if (out != null) {
+                try {
+                    // Le flux gzip doit être terminé par close(), même sur la sortie standard
+                    if (output == null && !gzip) out.flush();
+                    else out.close();
+                } catch (IOException ex) {
+                    System.err.println("Erreur : " + ex.getMessage());
+                }
+            }
+        }
+    }
+
+    /** Convertit une taille du type 512k, 256m ou 2g en octets ; -1 si invalide. */
+    static long parseSize(String value) {
+        String v = value.trim().toLowerCase(Locale.ROOT);
+        long unit = 1;
+        if (v.endsWith("k")) unit = 1L << 10;
+        else if (v.endsWith("m")) unit = 1L << 20;
+        else if (v.endsWith("g")) unit = 1L << 30;
+        if (unit != 1) v = v.substring(0, v.length() - 1);
+        try {
+            return Long.parseLong(v) * unit;
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    /** Ajoute une ligne UTF-8 à la fin du fichier (créé s'il n'existe pas). */
+    private static void appendLine(String file, String line) throws IOException {
+        Writer w = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8);
+        try {
+            w.write(line);
+            w.write('\n');
+        } finally {
+            w.close();
+        }
+    }
+
+    private static Reader openReader(String input, Charset charset) throws IOException {
+        if (!input.equals("-")) return FileLoader.openReader(new File(input), charset);
+        return new InputStreamReader(System.in, charset != null ? charset : StandardCharsets.UTF_8);
+    }
+
+    private static Writer openWriter(String output, boolean gzip) throws IOException {
+        return ResultExporter.openWriter(output == null ? System.out : new FileOutputStream(new File(output)), gzip);
+    }
+
+    static void readAll(Reader reader, StringBuilder sb) throws IOException {
+        char[] buf = new char[1 << 16];
+        int n;
+        while ((n = reader.read(buf)) != -1) sb.append(buf, 0, n);
+    }
+}
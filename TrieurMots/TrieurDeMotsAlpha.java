@@ -1,27 +1,28 @@
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.TitledBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.awt.datatransfer.StringSelection;
 import java.awt.datatransfer.Clipboard;
-import java.text.Collator;
-import java.text.Normalizer;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.awt.datatransfer.ClipboardOwner;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.nio.CharBuffer;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.regex.Pattern;
 import java.io.File;
-import java.io.FileReader;
-import java.io.BufferedReader;
-import java.io.FileWriter;
-import java.io.BufferedWriter;
-import java.io.IOException;
 
 /**
  * Logiciel "Trieur de Mots Alpha" - Refonte Majeure (Corrigée)
@@ -34,12 +35,23 @@ public class TrieurDeMotsAlpha {
     // --- Composants de l'interface (UI) ---
     private JFrame frame;
     private JTextArea inputArea;
-    private JTextArea resultArea;
+    private JList<String> resultList;
+    private SortedWordsListModel resultModel;
+    private JLabel filterLabel;
+    private JTextField filterField;
+    /** Index de préfixes du résultat affiché (null en mode fréquence). */
+    private PrefixIndex prefixIndex;
     private JRadioButton ascRadioButton;
     private JRadioButton descRadioButton;
     private JCheckBox ignoreCaseCheckBox;
     private JCheckBox ignoreAccentsCheckBox;
     private JCheckBox removeDuplicatesCheckBox;
+    private JCheckBox splitPunctuationCheckBox;
+    private JCheckBox radixCheckBox;
+    private JCheckBox countCheckBox;
+    private JCheckBox byCountCheckBox;
+    private JLabel topLabel;
+    private JSpinner topSpinner;
     private JLabel statusLabel;
     private JButton sortButton;
     private JButton clearInputButton;
@@ -48,6 +60,12 @@ public class TrieurDeMotsAlpha {
     private JButton loadFileButton;
     private JButton saveFileButton;
     private JComboBox<String> languageComboBox;
+    private JProgressBar progressBar;
+    private JButton cancelButton;
+    private JToggleButton detailsButton;
+    private JLabel metricsLabel;
+    /** Mesures du dernier tri, affichées dans le panneau de détails. */
+    private SortMetrics lastMetrics;
 
     // --- Références aux Panneaux (pour changer les titres dynamiquement) ---
     private JPanel inputSectionPanel;
@@ -59,9 +77,14 @@ public class TrieurDeMotsAlpha {
     private Map<String, Map<String, String>> translations; // Stockage des textes UI
     private ActionListener languageComboBoxListener;
 
-    // --- Constantes Techniques ---
-    private static final Pattern DIACRITICS_PATTERN = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
-    private static final String WORD_SEPARATORS_REGEX = "[\\s,;\\n\\t]+";
+    // --- Tâches de fond (chargement, tri) ---
+    private SwingWorker<?, ?> currentWorker;
+    /** Texte d'un gros fichier chargé, trié directement sans passer par inputArea. */
+    private CharSequence loadedText;
+    /** Résultats du dernier tri, réutilisés quand seules les options ou la fin du texte changent. */
+    private final SortSession sortSession = new SortSession();
+    /** Au-delà de cette taille, un fichier chargé n'est pas affiché dans la zone de saisie. */
+    private static final int INPUT_AREA_MAX_CHARS = 1 << 20;
 
     // --- Clés de Traduction ---
     private static final String KEY_APP_TITLE = "appTitle";
@@ -75,17 +98,48 @@ public class TrieurDeMotsAlpha {
     private static final String KEY_OPT_CASE = "optCase";
     private static final String KEY_OPT_ACCENTS = "optAccents";
     private static final String KEY_OPT_DEDUP = "optDedup";
+    private static final String KEY_OPT_PUNCT = "optPunct";
+    private static final String KEY_OPT_RADIX = "optRadix";
+    private static final String KEY_OPT_COUNT = "optCount";
+    private static final String KEY_OPT_BY_COUNT = "optByCount";
+    private static final String KEY_OPT_TOP = "optTop";
     private static final String KEY_BTN_SORT = "btnSort";
     private static final String KEY_RESULT_SECTION = "resultSection";
+    private static final String KEY_RESULT_TOOLTIP = "resultTooltip";
+    private static final String KEY_FILTER_LABEL = "filterLabel";
+    private static final String KEY_FILTER_TOOLTIP = "filterTooltip";
+    private static final String KEY_FILTER_COUNT = "filterCount";
     private static final String KEY_BTN_COPY = "btnCopy";
     private static final String KEY_BTN_SAVE = "btnSave";
     private static final String KEY_STATUS_READY = "statusReady";
     private static final String KEY_STATUS_SORTING = "statusSorting";
     private static final String KEY_STATUS_DONE = "statusDone";
+    private static final String KEY_STATUS_TIMING = "statusTiming";
     private static final String KEY_STATUS_ERROR = "statusError";
     private static final String KEY_LANG_LABEL = "langLabel";
+    private static final String KEY_BTN_CANCEL = "btnCancel";
+    private static final String KEY_STATUS_LOADING = "statusLoading";
+    private static final String KEY_STATUS_LOADED = "statusLoaded";
+    private static final String KEY_STATUS_LOADED_DIRECT = "statusLoadedDirect";
+    private static final String KEY_STATUS_CANCELLED = "statusCancelled";
+    private static final String KEY_STATUS_SAVING = "statusSaving";
+    private static final String KEY_STATUS_SAVED = "statusSaved";
+    private static final String KEY_SAVE_GZIP = "saveGzip";
+    private static final String KEY_SAVE_EOL = "saveEol";
+    /** Suivi de l'avancement : libellé d'étape (préfixe + ProgressListener.Phase.name()) et débit. */
+    private static final String KEY_PHASE_PREFIX = "phase";
+    private static final String KEY_PROGRESS_RATE = "progressRate";
+    private static final String KEY_BTN_DETAILS = "btnDetails";
+    private static final String KEY_METRICS_DETAILS = "metricsDetails";
 
     public static void main(String[] args) {
+        // Modes --cli et --server : aiguillés par Launcher, avant le chargement de cette classe
+        // (ses champs et ses imports tirent Swing/AWT). Conservés ici pour les anciens scripts.
+        if (args.length > 0 && (args[0].equals("--cli") || args[0].equals("--server"))) {
+            Launcher.main(args);
+            return;
+        }
+
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
         } catch (Exception e) {
@@ -104,6 +158,7 @@ public class TrieurDeMotsAlpha {
     }
 
     public TrieurDeMotsAlpha() {
+        SortMetricsRegistry.get().registerMBean();
         loadTranslations();
         initializeUI();
         updateUIStrings();
@@ -125,15 +180,45 @@ public class TrieurDeMotsAlpha {
         fr.put(KEY_OPT_CASE, "Ignorer la casse (a = A)");
         fr.put(KEY_OPT_ACCENTS, "Ignorer les accents (é = e)");
         fr.put(KEY_OPT_DEDUP, "Supprimer les doublons");
+        fr.put(KEY_OPT_PUNCT, "Séparer aussi sur la ponctuation (. : ! ?)");
+        fr.put(KEY_OPT_RADIX, "Tri radix (listes à longs préfixes communs)");
+        fr.put(KEY_OPT_COUNT, "Compter les occurrences");
+        fr.put(KEY_OPT_BY_COUNT, "Plus fréquents d'abord");
+        fr.put(KEY_OPT_TOP, "Top (0 = tous) :");
         fr.put(KEY_BTN_SORT, "TRIER LES MOTS");
         fr.put(KEY_RESULT_SECTION, "3. Résultat");
+        fr.put(KEY_RESULT_TOOLTIP, "Tapez une lettre pour y accéder directement.");
+        fr.put(KEY_FILTER_LABEL, "Filtrer (début du mot) :");
+        fr.put(KEY_FILTER_TOOLTIP, "Affiche les mots commençant par ce texte, sans tenir compte de la casse ni des accents.");
+        fr.put(KEY_FILTER_COUNT, "%d mots sur %d commencent par « %s ».");
         fr.put(KEY_BTN_COPY, "Copier");
         fr.put(KEY_BTN_SAVE, "Sauvegarder...");
         fr.put(KEY_STATUS_READY, "Prêt. En attente de saisie.");
         fr.put(KEY_STATUS_SORTING, "Traitement en cours...");
         fr.put(KEY_STATUS_DONE, "Terminé ! %d mots triés.");
+        fr.put(KEY_STATUS_TIMING, "(normalisation : %d ms, tri : %d ms)");
         fr.put(KEY_STATUS_ERROR, "Erreur : ");
         fr.put(KEY_LANG_LABEL, "Langue / Language :");
+        fr.put(KEY_BTN_CANCEL, "Annuler");
+        fr.put(KEY_STATUS_LOADING, "Chargement de %s...");
+        fr.put(KEY_STATUS_LOADED, "Fichier chargé : %s");
+        fr.put(KEY_STATUS_LOADED_DIRECT, "Fichier chargé : %s (%d caractères, trié sans affichage)");
+        fr.put(KEY_STATUS_CANCELLED, "Opération annulée.");
+        fr.put(KEY_STATUS_SAVING, "Sauvegarde de %s...");
+        fr.put(KEY_STATUS_SAVED, "Fichier sauvegardé : %s");
+        fr.put(KEY_SAVE_GZIP, "Compresser (gzip)");
+        fr.put(KEY_SAVE_EOL, "Fin de ligne :");
+        fr.put(KEY_PHASE_PREFIX + "LOAD", "Chargement");
+        fr.put(KEY_PHASE_PREFIX + "TOKENIZE", "Découpage");
+        fr.put(KEY_PHASE_PREFIX + "NORMALIZE", "Normalisation");
+        fr.put(KEY_PHASE_PREFIX + "SORT", "Tri");
+        fr.put(KEY_PHASE_PREFIX + "EMIT", "Restitution");
+        fr.put(KEY_PHASE_PREFIX + "EXPORT", "Sauvegarde");
+        fr.put(KEY_PROGRESS_RATE, "%,d mots/s");
+        fr.put(KEY_BTN_DETAILS, "Détails");
+        fr.put(KEY_METRICS_DETAILS, "<html>Découpage %.1f ms · Normalisation %.1f ms · Tri %.1f ms · Restitution %.1f ms"
+                + " · Total %.1f ms (%,d mots/s)<br>%,d mots lus, %,d distincts, %,d en sortie"
+                + " · Alloué (thread appelant) : %s · Pic du tas (processus) : %s · GC : %d pause(s), %d ms</html>");
         translations.put("fr", fr);
 
         Map<String, String> en = new LinkedHashMap<String, String>();
@@ -148,15 +233,45 @@ public class TrieurDeMotsAlpha {
         en.put(KEY_OPT_CASE, "Ignore Case (a = A)");
         en.put(KEY_OPT_ACCENTS, "Ignore Accents (é = e)");
         en.put(KEY_OPT_DEDUP, "Remove Duplicates");
+        en.put(KEY_OPT_PUNCT, "Also split on punctuation (. : ! ?)");
+        en.put(KEY_OPT_RADIX, "Radix sort (lists with long shared prefixes)");
+        en.put(KEY_OPT_COUNT, "Count occurrences");
+        en.put(KEY_OPT_BY_COUNT, "Most frequent first");
+        en.put(KEY_OPT_TOP, "Top (0 = all):");
         en.put(KEY_BTN_SORT, "SORT WORDS");
         en.put(KEY_RESULT_SECTION, "3. Result");
+        en.put(KEY_RESULT_TOOLTIP, "Type a letter to jump to it.");
+        en.put(KEY_FILTER_LABEL, "Filter (word start):");
+        en.put(KEY_FILTER_TOOLTIP, "Shows the words starting with this text, ignoring case and accents.");
+        en.put(KEY_FILTER_COUNT, "%d of %d words start with \"%s\".");
         en.put(KEY_BTN_COPY, "Copy");
         en.put(KEY_BTN_SAVE, "Save As...");
         en.put(KEY_STATUS_READY, "Ready. Waiting for input.");
         en.put(KEY_STATUS_SORTING, "Processing...");
         en.put(KEY_STATUS_DONE, "Done! %d words sorted.");
+        en.put(KEY_STATUS_TIMING, "(normalization: %d ms, sort: %d ms)");
         en.put(KEY_STATUS_ERROR, "Error: ");
         en.put(KEY_LANG_LABEL, "Language / Langue:");
+        en.put(KEY_BTN_CANCEL, "Cancel");
+        en.put(KEY_STATUS_LOADING, "Loading %s...");
+        en.put(KEY_STATUS_LOADED, "File loaded: %s");
+        en.put(KEY_STATUS_LOADED_DIRECT, "File loaded: %s (%d characters, sorted without display)");
+        en.put(KEY_STATUS_CANCELLED, "Operation cancelled.");
+        en.put(KEY_STATUS_SAVING, "Saving %s...");
+        en.put(KEY_STATUS_SAVED, "File saved: %s");
+        en.put(KEY_SAVE_GZIP, "Compress (gzip)");
+        en.put(KEY_SAVE_EOL, "Line ending:");
+        en.put(KEY_PHASE_PREFIX + "LOAD", "Loading");
+        en.put(KEY_PHASE_PREFIX + "TOKENIZE", "Tokenizing");
+        en.put(KEY_PHASE_PREFIX + "NORMALIZE", "Normalizing");
+        en.put(KEY_PHASE_PREFIX + "SORT", "Sorting");
+        en.put(KEY_PHASE_PREFIX + "EMIT", "Output");
+        en.put(KEY_PHASE_PREFIX + "EXPORT", "Saving");
+        en.put(KEY_PROGRESS_RATE, "%,d words/s");
+        en.put(KEY_BTN_DETAILS, "Details");
+        en.put(KEY_METRICS_DETAILS, "<html>Tokenize %.1f ms · Normalize %.1f ms · Sort %.1f ms · Output %.1f ms"
+                + " · Total %.1f ms (%,d words/s)<br>%,d words read, %,d distinct, %,d output"
+                + " · Allocated (calling thread): %s · Peak heap (process): %s · GC: %d pause(s), %d ms</html>");
         translations.put("en", en);
     }
 
@@ -177,6 +292,12 @@ public class TrieurDeMotsAlpha {
         inputArea = new JTextArea(8, 40);
         inputArea.setLineWrap(true);
         inputArea.setWrapStyleWord(true);
+        inputArea.getDocument().addDocumentListener(new DocumentListener() {
+            // Toute saisie remplace le fichier chargé sans affichage
+            public void insertUpdate(DocumentEvent e) { loadedText = null; }
+            public void removeUpdate(DocumentEvent e) { loadedText = null; }
+            public void changedUpdate(DocumentEvent e) { }
+        });
         JScrollPane inputScroll = new JScrollPane(inputArea);
         inputSectionPanel.add(inputScroll, BorderLayout.CENTER);
 
@@ -184,7 +305,7 @@ public class TrieurDeMotsAlpha {
         loadFileButton = new JButton();
         loadFileButton.addActionListener(new ActionListener() { public void actionPerformed(ActionEvent e) { loadFile(); }});
         clearInputButton = new JButton();
-        clearInputButton.addActionListener(new ActionListener() { public void actionPerformed(ActionEvent e) { inputArea.setText(""); statusLabel.setText("Cleared."); }});
+        clearInputButton.addActionListener(new ActionListener() { public void actionPerformed(ActionEvent e) { inputArea.setText(""); loadedText = null; sortSession.clear(); statusLabel.setText("Cleared."); }});
         
         inputBtnBar.add(loadFileButton);
         inputBtnBar.add(clearInputButton);
@@ -210,13 +331,30 @@ public class TrieurDeMotsAlpha {
         radioPanel.add(ascRadioButton);
         radioPanel.add(descRadioButton);
         
-        JPanel checkPanel = new JPanel(new GridLayout(3, 1));
+        JPanel checkPanel = new JPanel(new GridLayout(6, 1));
         ignoreCaseCheckBox = new JCheckBox("");
         ignoreAccentsCheckBox = new JCheckBox("");
         removeDuplicatesCheckBox = new JCheckBox("");
+        splitPunctuationCheckBox = new JCheckBox("");
+        radixCheckBox = new JCheckBox("");
         checkPanel.add(ignoreCaseCheckBox);
         checkPanel.add(ignoreAccentsCheckBox);
         checkPanel.add(removeDuplicatesCheckBox);
+        checkPanel.add(splitPunctuationCheckBox);
+        checkPanel.add(radixCheckBox);
+
+        // Mode fréquence : "mot<TAB>nombre", éventuellement limité aux K plus fréquents
+        JPanel countPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        countCheckBox = new JCheckBox("");
+        byCountCheckBox = new JCheckBox("");
+        topLabel = new JLabel("");
+        topSpinner = new JSpinner(new SpinnerNumberModel(0, 0, Integer.MAX_VALUE, 10));
+        countPanel.add(countCheckBox);
+        countPanel.add(byCountCheckBox);
+        countPanel.add(Box.createHorizontalStrut(10));
+        countPanel.add(topLabel);
+        countPanel.add(topSpinner);
+        checkPanel.add(countPanel);
 
         optionsPanel.add(radioPanel, BorderLayout.NORTH);
         optionsPanel.add(checkPanel, BorderLayout.CENTER);
@@ -246,13 +384,39 @@ public class TrieurDeMotsAlpha {
         resultSectionPanel = new JPanel(new BorderLayout(0, 5));
         resultSectionPanel.setBorder(new TitledBorder(""));
 
-        resultArea = new JTextArea(10, 40);
-        resultArea.setEditable(false);
-        resultArea.setBackground(new Color(245, 245, 245));
-        resultArea.setLineWrap(true);
-        resultArea.setWrapStyleWord(true);
-        
-        resultSectionPanel.add(new JScrollPane(resultArea), BorderLayout.CENTER);
+        // Liste virtualisée : seules les lignes visibles sont rendues
+        resultModel = new SortedWordsListModel();
+        resultList = new JList<String>(resultModel) {
+            @Override
+            public int getNextMatch(String prefix, int startIndex, javax.swing.text.Position.Bias bias) {
+                // Saut par lettre en O(1) grâce à l'index des initiales (liste triée par ordre alphabétique)
+                if (prefix != null && prefix.length() == 1) {
+                    if (startIndex < 0 || startIndex >= resultModel.getSize()) throw new IllegalArgumentException();
+                    return resultModel.nextIndexOfLetter(prefix.charAt(0), startIndex,
+                            bias == javax.swing.text.Position.Bias.Forward);
+                }
+                return super.getNextMatch(prefix, startIndex, bias);
+            }
+        };
+        resultList.setBackground(new Color(245, 245, 245));
+        // Taille de cellule fixe : évite de mesurer chaque mot pour la mise en page
+        resultList.setPrototypeCellValue("WWWWWWWWWWWWWWWWWWWWWWWWWWWWWWWWWWWWWWWW");
+        resultList.setVisibleRowCount(10);
+
+        resultSectionPanel.add(new JScrollPane(resultList), BorderLayout.CENTER);
+
+        // Filtre par préfixe : recherche dichotomique dans l'index gardé après le tri
+        JPanel filterPanel = new JPanel(new BorderLayout(5, 0));
+        filterLabel = new JLabel();
+        filterField = new JTextField();
+        filterField.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { applyFilter(); }
+            public void removeUpdate(DocumentEvent e) { applyFilter(); }
+            public void changedUpdate(DocumentEvent e) { applyFilter(); }
+        });
+        filterPanel.add(filterLabel, BorderLayout.WEST);
+        filterPanel.add(filterField, BorderLayout.CENTER);
+        resultSectionPanel.add(filterPanel, BorderLayout.NORTH);
 
         JPanel resultBtnBar = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         copyResultButton = new JButton();
@@ -284,8 +448,46 @@ public class TrieurDeMotsAlpha {
         languageComboBox.addActionListener(languageComboBoxListener);
         langPanel.add(languageComboBox);
 
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+        cancelButton = new JButton();
+        cancelButton.setVisible(false);
+        cancelButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                // Annulation coopérative : pas d'interruption (elle fermerait les FileChannel).
+                // L'interface n'est réactivée qu'à la sortie effective du traitement (ProgressWorker.finished)
+                if (currentWorker != null) {
+                    currentWorker.cancel(false);
+                    cancelButton.setEnabled(false);
+                }
+            }
+        });
+        // Panneau de détails facultatif : mesures du dernier tri
+        metricsLabel = new JLabel();
+        metricsLabel.setBorder(new EmptyBorder(0, 5, 5, 0));
+        metricsLabel.setVisible(false);
+        detailsButton = new JToggleButton();
+        detailsButton.setEnabled(false);
+        detailsButton.addActionListener(new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                metricsLabel.setVisible(detailsButton.isSelected());
+                frame.pack();
+            }
+        });
+
+        JPanel jobPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        jobPanel.add(progressBar);
+        jobPanel.add(cancelButton);
+        jobPanel.add(detailsButton);
+
+        JPanel eastPanel = new JPanel(new BorderLayout());
+        eastPanel.add(jobPanel, BorderLayout.WEST);
+        eastPanel.add(langPanel, BorderLayout.EAST);
+
+        statusBar.add(metricsLabel, BorderLayout.NORTH);
         statusBar.add(statusLabel, BorderLayout.CENTER);
-        statusBar.add(langPanel, BorderLayout.EAST);
+        statusBar.add(eastPanel, BorderLayout.EAST);
         
         southContainer.add(statusBar, BorderLayout.SOUTH);
         
@@ -311,11 +513,22 @@ public class TrieurDeMotsAlpha {
         ignoreCaseCheckBox.setText(txt.get(KEY_OPT_CASE));
         ignoreAccentsCheckBox.setText(txt.get(KEY_OPT_ACCENTS));
         removeDuplicatesCheckBox.setText(txt.get(KEY_OPT_DEDUP));
+        splitPunctuationCheckBox.setText(txt.get(KEY_OPT_PUNCT));
+        radixCheckBox.setText(txt.get(KEY_OPT_RADIX));
+        countCheckBox.setText(txt.get(KEY_OPT_COUNT));
+        byCountCheckBox.setText(txt.get(KEY_OPT_BY_COUNT));
+        topLabel.setText(txt.get(KEY_OPT_TOP));
         sortButton.setText(txt.get(KEY_BTN_SORT));
         
         ((TitledBorder) resultSectionPanel.getBorder()).setTitle(txt.get(KEY_RESULT_SECTION));
+        resultList.setToolTipText(txt.get(KEY_RESULT_TOOLTIP));
+        filterLabel.setText(txt.get(KEY_FILTER_LABEL));
+        filterField.setToolTipText(txt.get(KEY_FILTER_TOOLTIP));
         copyResultButton.setText(txt.get(KEY_BTN_COPY));
         saveFileButton.setText(txt.get(KEY_BTN_SAVE));
+        cancelButton.setText(txt.get(KEY_BTN_CANCEL));
+        detailsButton.setText(txt.get(KEY_BTN_DETAILS));
+        updateMetricsLabel();
         
         statusLabel.setText(txt.get(KEY_STATUS_READY));
         
@@ -323,8 +536,14 @@ public class TrieurDeMotsAlpha {
     }
 
     private void performSort() {
-        final String text = inputArea.getText();
-        if (text == null || text.trim().isEmpty()) return;
+        final CharSequence text;
+        if (loadedText != null) {
+            text = loadedText;
+        } else {
+            String typed = inputArea.getText();
+            if (typed == null || typed.trim().isEmpty()) return;
+            text = typed;
+        }
 
         // Appel de la méthode corrigée
         setComponentsEnabled(false);
@@ -332,123 +551,362 @@ public class TrieurDeMotsAlpha {
         statusLabel.setText(translations.get(currentLocale.getLanguage()).get(KEY_STATUS_SORTING));
         statusLabel.setForeground(Color.BLUE);
 
-        final boolean isAsc = ascRadioButton.isSelected();
-        final boolean ignoreCase = ignoreCaseCheckBox.isSelected();
-        final boolean ignoreAccents = ignoreAccentsCheckBox.isSelected();
-        final boolean removeDupes = removeDuplicatesCheckBox.isSelected();
-        final Locale sortLocale = currentLocale;
+        final SortOptions options = new SortOptions();
+        options.setAscending(ascRadioButton.isSelected());
+        options.setIgnoreCase(ignoreCaseCheckBox.isSelected());
+        options.setIgnoreAccents(ignoreAccentsCheckBox.isSelected());
+        options.setRemoveDuplicates(removeDuplicatesCheckBox.isSelected());
+        options.setLocale(currentLocale);
+        options.setCountFrequencies(countCheckBox.isSelected());
+        if (byCountCheckBox.isSelected()) options.setFrequencyOrder(FrequencyCounter.Order.BY_COUNT);
+        options.setTopK((Integer) topSpinner.getValue());
+        options.setRadixSort(radixCheckBox.isSelected());
+        if (splitPunctuationCheckBox.isSelected()) {
+            options.setSeparators(WordTokenizer.DEFAULT_SEPARATORS + WordTokenizer.PUNCTUATION);
+        }
 
-        SwingWorker<String, Void> worker = new SwingWorker<String, Void>() {
+        // Tâche annulable : le moteur vérifie l'annulation entre deux blocs de travail
+        runJob(new ProgressWorker<SortResult>() {
             private int count = 0;
+            private long normalizeMillis = 0;
+            private long sortMillis = 0;
 
             @Override
-            protected String doInBackground() throws Exception {
-                String[] rawWords = text.split(WORD_SEPARATORS_REGEX);
-                List<String> words = new ArrayList<String>();
-                for (String w : rawWords) if (!w.trim().isEmpty()) words.add(w.trim());
-
-                if (removeDupes) {
-                    Map<String, String> uniqueMap = new LinkedHashMap<String, String>();
-                    for (String w : words) {
-                        String key = w;
-                        if (ignoreCase) key = key.toLowerCase(sortLocale);
-                        if (ignoreAccents) key = removeAccents(key);
-                        if (!uniqueMap.containsKey(key)) uniqueMap.put(key, w);
-                    }
-                    words = new ArrayList<String>(uniqueMap.values());
-                }
-
-                final Collator collator = Collator.getInstance(sortLocale);
-                if (ignoreCase && !ignoreAccents) collator.setStrength(Collator.SECONDARY);
-                else if (ignoreCase && ignoreAccents) collator.setStrength(Collator.PRIMARY);
-                else collator.setStrength(Collator.TERTIARY);
-
-                Comparator<String> comp = new Comparator<String>() {
-                    public int compare(String s1, String s2) {
-                        String str1 = ignoreAccents ? removeAccents(s1) : s1;
-                        String str2 = ignoreAccents ? removeAccents(s2) : s2;
-                        return collator.compare(str1, str2);
-                    }
-                };
-
-                Collections.sort(words, comp);
-                if (!isAsc) Collections.reverse(words);
-
-                StringBuilder sb = new StringBuilder();
-                for (String w : words) sb.append(w).append("\n");
-                count = words.size();
-                return sb.toString();
+            protected SortResult compute() throws Exception {
+                SortResult result = sortSession.sort(text, options, this);
+                count = result.size();
+                normalizeMillis = result.getNormalizeMillis();
+                sortMillis = result.getSortMillis();
+                return result;
             }
 
             @Override
-            protected void done() {
+            protected void finished() {
                 try {
-                    resultArea.setText(get());
-                    resultArea.setCaretPosition(0);
-                    String msg = String.format(translations.get(currentLocale.getLanguage()).get(KEY_STATUS_DONE), count);
+                    SortResult result = get();
+                    resultModel.setWords(result.getWords());
+                    prefixIndex = result.getPrefixIndex();
+                    lastMetrics = result.getMetrics();
+                    updateMetricsLabel();
+                    Map<String, String> txt = translations.get(currentLocale.getLanguage());
+                    String msg = String.format(txt.get(KEY_STATUS_DONE), count)
+                            + " " + String.format(txt.get(KEY_STATUS_TIMING), normalizeMillis, sortMillis);
                     statusLabel.setText(msg);
                     statusLabel.setForeground(new Color(0, 100, 0));
+                    // Le filtre saisi reste appliqué au nouveau résultat
+                    applyFilter();
+                    if (resultModel.getSize() > 0) resultList.ensureIndexIsVisible(0);
+                } catch (CancellationException e) {
+                    // Le résultat précédent reste affiché ; les tableaux du tri annulé ne sont plus référencés
+                    statusLabel.setText(translations.get(currentLocale.getLanguage()).get(KEY_STATUS_CANCELLED));
+                    statusLabel.setForeground(Color.BLACK);
                 } catch (Exception e) {
                     statusLabel.setText(translations.get(currentLocale.getLanguage()).get(KEY_STATUS_ERROR) + e.getMessage());
                     statusLabel.setForeground(Color.RED);
                     e.printStackTrace();
                 } finally {
+                    jobFinished();
                     // Appel de la méthode corrigée pour réactiver
                     setComponentsEnabled(true);
                 }
             }
-        };
+        });
+    }
+
+    private void loadFile() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION) return;
+        final File file = chooser.getSelectedFile();
+        final Map<String, String> txt = translations.get(currentLocale.getLanguage());
+
+        setComponentsEnabled(false);
+        statusLabel.setText(String.format(txt.get(KEY_STATUS_LOADING), file.getName()));
+        statusLabel.setForeground(Color.BLUE);
+
+        // Projection mémoire et décodage hors de l'EDT ; encodage détecté automatiquement
+        runJob(new ProgressWorker<CharBuffer>() {
+            @Override
+            protected CharBuffer compute() throws Exception {
+                return FileLoader.load(file, null, this);
+            }
+
+            @Override
+            protected void finished() {
+                try {
+                    CharBuffer text = get();
+                    sortSession.clear();
+                    if (text.length() <= INPUT_AREA_MAX_CHARS) {
+                        inputArea.setText(text.toString());
+                        inputArea.setCaretPosition(0);
+                        statusLabel.setText(String.format(txt.get(KEY_STATUS_LOADED), file.getName()));
+                    } else {
+                        // Trop volumineux pour JTextArea : le texte part directement au moteur de tri
+                        inputArea.setText("");
+                        loadedText = text;
+                        statusLabel.setText(String.format(txt.get(KEY_STATUS_LOADED_DIRECT), file.getName(), text.length()));
+                    }
+                    statusLabel.setForeground(Color.BLACK);
+                } catch (CancellationException e) {
+                    statusLabel.setText(txt.get(KEY_STATUS_CANCELLED));
+                    statusLabel.setForeground(Color.BLACK);
+                } catch (Exception e) {
+                    Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                    statusLabel.setText(txt.get(KEY_STATUS_READY));
+                    JOptionPane.showMessageDialog(frame, "Erreur lecture fichier: " + cause.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
+                } finally {
+                    jobFinished();
+                    setComponentsEnabled(true);
+                }
+            }
+        });
+    }
+
+    /** Texte du panneau de détails d'après les mesures du dernier tri. */
+    private void updateMetricsLabel() {
+        detailsButton.setEnabled(lastMetrics != null);
+        if (lastMetrics == null) return;
+        SortMetrics m = lastMetrics;
+        metricsLabel.setText(String.format(translations.get(currentLocale.getLanguage()).get(KEY_METRICS_DETAILS),
+                m.getTokenizeMillis(), m.getNormalizeMillis(), m.getSortMillis(), m.getEmitMillis(),
+                m.getTotalMillis(), m.getWordsPerSecond(),
+                m.getInputWords(), m.getUniqueWords(), m.getOutputWords(),
+                formatBytes(m.getCallerAllocatedBytes()), formatBytes(m.getPeakHeapBytes()),
+                m.getGcCount(), m.getGcMillis()));
+    }
+
+    /** Taille lisible en Ko/Mo (KB/MB en anglais) ; "n/d" si la JVM ne la mesure pas. */
+    private String formatBytes(long bytes) {
+        if (bytes < 0) return "n/d";
+        boolean fr = currentLocale.getLanguage().equals("fr");
+        if (bytes < 1 << 20) return String.format("%,d %s", bytes >> 10, fr ? "Ko" : "KB");
+        return String.format("%,d %s", bytes >> 20, fr ? "Mo" : "MB");
+    }
+
+    /** Restreint la liste aux mots commençant par le texte du filtre (casse et accents ignorés). */
+    private void applyFilter() {
+        String prefix = filterField.getText().trim();
+        if (prefix.isEmpty() || prefixIndex == null) {
+            resultModel.setWindow(0, resultModel.getTotalSize());
+            return;
+        }
+        int[] range = prefixIndex.range(prefix);
+        resultModel.setWindow(range[0], range[1]);
+        Map<String, String> txt = translations.get(currentLocale.getLanguage());
+        statusLabel.setText(String.format(txt.get(KEY_FILTER_COUNT), range[1] - range[0], prefixIndex.size(), prefix));
+        statusLabel.setForeground(Color.BLACK);
+    }
+
+    /** Lance une tâche de fond, avec barre de progression et bouton d'annulation. */
+    private void runJob(SwingWorker<?, ?> worker) {
+        currentWorker = worker;
+        progressBar.setValue(0);
+        progressBar.setString(null);
+        progressBar.setVisible(true);
+        cancelButton.setVisible(true);
+        cancelButton.setEnabled(true);
+        worker.addPropertyChangeListener(new PropertyChangeListener() {
+            public void propertyChange(PropertyChangeEvent evt) {
+                if ("progress".equals(evt.getPropertyName())) progressBar.setValue((Integer) evt.getNewValue());
+            }
+        });
         worker.execute();
     }
 
-    private String removeAccents(String text) {
-        if (text == null) return null;
-        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
-        return DIACRITICS_PATTERN.matcher(normalized).replaceAll("");
+    private void jobFinished() {
+        currentWorker = null;
+        progressBar.setVisible(false);
+        cancelButton.setVisible(false);
     }
 
-    private void loadFile() {
-        JFileChooser chooser = new JFileChooser();
-        if (chooser.showOpenDialog(frame) == JFileChooser.APPROVE_OPTION) {
+    /**
+     * SwingWorker servant de ProgressListener aux traitements du moteur :
+     * l'avancement global alimente setProgress(), le libellé de l'étape et le débit
+     * passent par publish(), et l'annulation est lue via isCancelled().
+     * progress() peut être appelé depuis plusieurs threads (tri parallèle).
+     *
+     * cancel() déclenche done() aussitôt, alors que le traitement tourne encore jusqu'au
+     * prochain point de contrôle : les sous-classes réagissent donc dans finished(), appelé
+     * sur l'EDT une fois done() passé ET compute() terminé, pour ne jamais lancer
+     * un second traitement pendant que le premier s'achève.
+     */
+    private abstract class ProgressWorker<T> extends SwingWorker<T, String> implements ProgressListener {
+        private Phase phase;
+        private long phaseStart;
+        private int lastPercent = -1;
+        /** compute() lancé (ou définitivement écarté par une annulation avant son départ). */
+        private final AtomicBoolean started = new AtomicBoolean();
+        /** done() et la fin de compute() : finished() part au second des deux. */
+        private final AtomicInteger pending = new AtomicInteger(2);
+
+        /** Traitement de fond, qui suit l'avancement et l'annulation via this. */
+        protected abstract T compute() throws Exception;
+
+        /** Sur l'EDT, une fois le traitement réellement terminé ; get() donne le résultat ou l'erreur. */
+        protected abstract void finished();
+
+        @Override
+        protected final T doInBackground() throws Exception {
+            // Annulé avant le départ : done() s'est déjà chargé de finished()
+            if (!started.compareAndSet(false, true)) throw new CancellationException();
             try {
-                BufferedReader reader = new BufferedReader(new FileReader(chooser.getSelectedFile()));
-                StringBuilder sb = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) sb.append(line).append("\n");
-                reader.close();
-                inputArea.setText(sb.toString());
-                statusLabel.setText("Fichier chargé : " + chooser.getSelectedFile().getName());
-            } catch (IOException ex) {
-                JOptionPane.showMessageDialog(frame, "Erreur lecture fichier: " + ex.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
+                return compute();
+            } finally {
+                arrive();
             }
         }
+
+        @Override
+        protected final void done() {
+            // Annulé avant le départ : compute() ne sera jamais lancé
+            if (started.compareAndSet(false, true)) arrive();
+            arrive();
+        }
+
+        private void arrive() {
+            if (pending.decrementAndGet() != 0) return;
+            SwingUtilities.invokeLater(new Runnable() {
+                public void run() {
+                    finished();
+                }
+            });
+        }
+
+        public synchronized void progress(Phase p, long done, long total) {
+            long now = System.nanoTime();
+            if (p != phase) {
+                phase = p;
+                phaseStart = now;
+                lastPercent = -1;
+            }
+            int percent = total <= 0 ? 100 : (int) Math.min(100, done * 100 / total);
+            setProgress(overallPercent(p, percent));
+            if (percent == lastPercent) return;
+            lastPercent = percent;
+
+            Map<String, String> txt = translations.get(currentLocale.getLanguage());
+            String label = txt.get(KEY_PHASE_PREFIX + p.name()) + " " + percent + " %";
+            long elapsed = now - phaseStart;
+            // LOAD et TOKENIZE comptent des octets ou des caractères : pas de débit en mots
+            if (p != Phase.LOAD && p != Phase.TOKENIZE && done > 0 && elapsed > 0) {
+                label += " – " + String.format(txt.get(KEY_PROGRESS_RATE), done * 1000000000L / elapsed);
+            }
+            publish(label);
+        }
+
+        @Override
+        protected void process(List<String> labels) {
+            if (currentWorker == this) progressBar.setString(labels.get(labels.size() - 1));
+        }
+    }
+
+    /** Avancement global d'un tri : chaque étape occupe une part fixe de la barre. */
+    private static int overallPercent(ProgressListener.Phase phase, int percent) {
+        switch (phase) {
+            case TOKENIZE: return percent * 15 / 100;
+            case NORMALIZE: return 15 + percent * 55 / 100;
+            case SORT: return 70 + percent * 20 / 100;
+            case EMIT: return 90 + percent / 10;
+            default: return percent;
+        }
     }
 
     private void saveFile() {
-        if (resultArea.getText().isEmpty()) return;
+        final String[] words = resultModel.getWords();
+        if (words.length == 0) return;
+        final Map<String, String> txt = translations.get(currentLocale.getLanguage());
+
+        // Options d'export : compression et fin de ligne
+        JCheckBox gzipCheckBox = new JCheckBox(txt.get(KEY_SAVE_GZIP));
+        JComboBox<String> eolComboBox = new JComboBox<String>(new String[]{"LF (\\n)", "CRLF (\\r\\n)"});
+        JPanel accessory = new JPanel(new GridLayout(3, 1));
+        accessory.setBorder(new EmptyBorder(0, 10, 0, 0));
+        accessory.add(gzipCheckBox);
+        accessory.add(new JLabel(txt.get(KEY_SAVE_EOL)));
+        accessory.add(eolComboBox);
+
         JFileChooser chooser = new JFileChooser();
-        if (chooser.showSaveDialog(frame) == JFileChooser.APPROVE_OPTION) {
-            try {
-                File f = chooser.getSelectedFile();
-                if (!f.getName().contains(".")) f = new File(f.getAbsolutePath() + ".txt");
-                BufferedWriter writer = new BufferedWriter(new FileWriter(f));
-                writer.write(resultArea.getText());
-                writer.close();
-                statusLabel.setText("Fichier sauvegardé : " + f.getName());
-            } catch (IOException ex) {
-                JOptionPane.showMessageDialog(frame, "Erreur écriture fichier: " + ex.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
+        chooser.setAccessory(accessory);
+        if (chooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION) return;
+
+        File chosen = chooser.getSelectedFile();
+        if (!chosen.getName().contains(".")) chosen = new File(chosen.getAbsolutePath() + ".txt");
+        final boolean gzip = gzipCheckBox.isSelected() || chosen.getName().endsWith(".gz");
+        if (gzip && !chosen.getName().endsWith(".gz")) chosen = new File(chosen.getAbsolutePath() + ".gz");
+        final File f = chosen;
+        final String lineSeparator = eolComboBox.getSelectedIndex() == 1 ? ResultExporter.CRLF : ResultExporter.LF;
+
+        setComponentsEnabled(false);
+        statusLabel.setText(String.format(txt.get(KEY_STATUS_SAVING), f.getName()));
+        statusLabel.setForeground(Color.BLUE);
+
+        // Écriture en UTF-8 depuis le tableau trié, hors de l'EDT
+        runJob(new ProgressWorker<Void>() {
+            @Override
+            protected Void compute() throws Exception {
+                ResultExporter.export(words, f, lineSeparator, gzip, this);
+                return null;
             }
-        }
+
+            @Override
+            protected void finished() {
+                try {
+                    get();
+                    statusLabel.setText(String.format(txt.get(KEY_STATUS_SAVED), f.getName()));
+                    statusLabel.setForeground(Color.BLACK);
+                } catch (CancellationException e) {
+                    statusLabel.setText(txt.get(KEY_STATUS_CANCELLED));
+                    statusLabel.setForeground(Color.BLACK);
+                } catch (Exception e) {
+                    Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                    statusLabel.setText(txt.get(KEY_STATUS_READY));
+                    JOptionPane.showMessageDialog(frame, "Erreur écriture fichier: " + cause.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
+                } finally {
+                    jobFinished();
+                    setComponentsEnabled(true);
+                }
+            }
+        });
     }
 
     private void copyToClipboard() {
-        if (resultArea.getText().isEmpty()) return;
-        StringSelection selection = new StringSelection(resultArea.getText());
+        String[] words = resultModel.getWords();
+        if (words.length == 0) return;
+        LazyTextSelection selection = new LazyTextSelection(words);
         Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
         clipboard.setContents(selection, selection);
         statusLabel.setText("Résultat copié dans le presse-papiers !");
     }
 
+    /**
+     * Contenu du presse-papiers construit seulement quand une application le colle,
+     * et une seule fois, à partir du tableau trié.
+     */
+    private static final class LazyTextSelection implements Transferable, ClipboardOwner {
+        private final String[] words;
+        private String text;
+
+        LazyTextSelection(String[] words) {
+            this.words = words;
+        }
+
+        public DataFlavor[] getTransferDataFlavors() {
+            return new DataFlavor[]{DataFlavor.stringFlavor};
+        }
+
+        public boolean isDataFlavorSupported(DataFlavor flavor) {
+            return DataFlavor.stringFlavor.equals(flavor);
+        }
+
+        public synchronized Object getTransferData(DataFlavor flavor) throws UnsupportedFlavorException {
+            if (!isDataFlavorSupported(flavor)) throw new UnsupportedFlavorException(flavor);
+            if (text == null) text = ResultExporter.join(words, ResultExporter.LF);
+            return text;
+        }
+
+        public void lostOwnership(Clipboard clipboard, Transferable contents) {
+        }
+    }
+
     // --- CORRECTION MAJEURE ICI ---
     // Au lieu de parcourir les composants dynamiquement (source du bug),
     // on active/désactive les composants connus explicitement.
@@ -467,6 +925,12 @@ public class TrieurDeMotsAlpha {
         ignoreCaseCheckBox.setEnabled(enabled);
         ignoreAccentsCheckBox.setEnabled(enabled);
         removeDuplicatesCheckBox.setEnabled(enabled);
+        splitPunctuationCheckBox.setEnabled(enabled);
+        radixCheckBox.setEnabled(enabled);
+        filterField.setEnabled(enabled && prefixIndex != null);
+        countCheckBox.setEnabled(enabled);
+        byCountCheckBox.setEnabled(enabled);
+        topSpinner.setEnabled(enabled);
         
         // Langue
         languageComboBox.setEnabled(enabled);
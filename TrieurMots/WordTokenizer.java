@@ -0,0 +1,156 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Découpage du texte en mots, sans expression régulière.
+ * Parcourt un CharSequence ou un Reader caractère par caractère et n'alloue que les mots produits.
+ *
+ * Avec les séparateurs par défaut, le résultat est identique à l'ancien
+ * text.split("[\\s,;\\n\\t]+") suivi de trim() et de l'élimination des mots vides.
+ */
+public class WordTokenizer {
+
+    /** Espaces (au sens de \s), virgule et point-virgule. */
+    public static final String DEFAULT_SEPARATORS = " \t\n\r\f\u000B,;";
+    /** Ponctuation courante, à ajouter aux séparateurs par défaut si besoin. */
+    public static final String PUNCTUATION = ".:!?()[]{}\"«»…";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final boolean[] asciiSeparators = new boolean[128];
+    private final String otherSeparators;
+
+    public WordTokenizer() {
+        this(DEFAULT_SEPARATORS);
+    }
+
+    public WordTokenizer(String separators) {
+        StringBuilder others = new StringBuilder();
+        for (int i = 0; i < separators.length(); i++) {
+            char c = separators.charAt(i);
+            if (c < 128) asciiSeparators[c] = true;
+            else others.append(c);
+        }
+        otherSeparators = others.toString();
+    }
+
+    public boolean isSeparator(char c) {
+        if (c < 128) return asciiSeparators[c];
+        return otherSeparators.length() > 0 && otherSeparators.indexOf(c) >= 0;
+    }
+
+    public void tokenize(CharSequence text, List<String> out) {
+        tokenize(text, 0, text.length(), out);
+    }
+
+    /** Découpe text[from, to) ; les bornes doivent tomber sur des séparateurs ou les extrémités. */
+    public void tokenize(CharSequence text, int from, int to, List<String> out) {
+        int i = from;
+        while (i < to) {
+            while (i < to && isSeparator(text.charAt(i))) i++;
+            int start = i;
+            while (i < to && !isSeparator(text.charAt(i))) i++;
+            String word = trimmed(text, start, i);
+            if (word != null) out.add(word);
+        }
+    }
+
+    /** Curseur de lecture mot par mot sur un Reader (le Reader n'est pas fermé). */
+    public Words words(Reader reader) {
+        return new Words(reader);
+    }
+
+    /** Équivalent de subSequence(start, end).toString().trim(), ou null si vide. */
+    private static String trimmed(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') start++;
+        while (end > start && text.charAt(end - 1) <= ' ') end--;
+        if (start == end) return null;
+        if (text instanceof String) return ((String) text).substring(start, end);
+        return text.subSequence(start, end).toString();
+    }
+
+    /**
+     * Lecture incrémentale : seul un tampon de taille fixe est conservé en mémoire,
+     * plus le mot en cours lorsqu'il chevauche deux remplissages du tampon.
+     */
+    public final class Words {
+        private final Reader reader;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private final Segment view = new Segment(buffer);
+        private final StringBuilder partial = new StringBuilder();
+        private int pos = 0;
+        private int limit = 0;
+        private boolean eof = false;
+
+        private Words(Reader reader) {
+            this.reader = reader;
+        }
+
+        /** Mot suivant, ou null à la fin du flux. */
+        public String next() throws IOException {
+            while (true) {
+                // Saut des séparateurs
+                while (true) {
+                    if (pos == limit && !fill()) return null;
+                    if (!isSeparator(buffer[pos])) break;
+                    pos++;
+                }
+                int start = pos;
+                while (pos < limit && !isSeparator(buffer[pos])) pos++;
+                String word;
+                if (pos < limit) {
+                    word = trimmed(view, start, pos);
+                } else {
+                    // Le mot continue peut-être dans le prochain remplissage du tampon
+                    partial.setLength(0);
+                    partial.append(buffer, start, pos - start);
+                    while (fill()) {
+                        start = pos;
+                        while (pos < limit && !isSeparator(buffer[pos])) pos++;
+                        partial.append(buffer, start, pos - start);
+                        if (pos < limit) break;
+                    }
+                    word = trimmed(partial, 0, partial.length());
+                }
+                if (word != null) return word;
+            }
+        }
+
+        private boolean fill() throws IOException {
+            if (eof) return false;
+            int n;
+            do {
+                n = reader.read(buffer, 0, buffer.length);
+            } while (n == 0);
+            if (n < 0) {
+                eof = true;
+                pos = limit = 0;
+                return false;
+            }
+            pos = 0;
+            limit = n;
+            return true;
+        }
+    }
+
+    /** Vue CharSequence sur le tampon, sans copie. */
+    private static final class Segment implements CharSequence {
+        private final char[] chars;
+
+        Segment(char[] chars) {
+            this.chars = chars;
+        }
+
+        public int length() { return chars.length; }
+        public char charAt(int index) { return chars[index]; }
+
+        public CharSequence subSequence(int start, int end) {
+            return new String(chars, start, end - start);
+        }
+
+        public String toString() {
+            return new String(chars);
+        }
+    }
+}
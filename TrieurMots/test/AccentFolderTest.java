@@ -0,0 +1,100 @@
+import static org.junit.Assert.assertEquals;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+/**
+ * AccentFolder.fold doit rendre exactement l'ancien removeAccents() : NFD puis retrait de
+ * \p{InCombiningDiacriticalMarks}, quels que soient la table, le cache partagé et les threads.
+ */
+public class AccentFolderTest {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+
+    /** Ancien removeAccents(), recopié de la v2.1. */
+    private static String legacy(String text) {
+        return DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    private static final String[] SAMPLES = {
+        "", "abc", "été", "ÉTÉ", "Ça", "œuvre", "Œdipe", "ﬁn", "Ångström", "naïve", "Đakovo", "Łódź",
+        "İstanbul", "ǅemal", "ﾊﾟ", "Ḁ", "𝔘𝔫", "é", "à́", "x😀é", "\uD800", "Aa", "BB"
+    };
+
+    @Test
+    public void everyCharSameAsLegacy() {
+        for (int c = 0; c <= 0xFFFF; c++) {
+            String s = String.valueOf((char) c);
+            assertEquals(Integer.toHexString(c), legacy(s), AccentFolder.fold(s));
+            // Deuxième appel : réponse servie par le cache
+            assertEquals(Integer.toHexString(c), legacy(s), AccentFolder.fold(s));
+            // Au milieu d'un mot ASCII : chemin de la table à partir du premier non-ASCII
+            String word = "ab" + s + "z";
+            assertEquals(Integer.toHexString(c), legacy(word), AccentFolder.fold(word));
+        }
+    }
+
+    @Test
+    public void samplesSameAsLegacy() {
+        for (String s : SAMPLES) {
+            assertEquals(s, legacy(s), AccentFolder.fold(s));
+            assertEquals(s, legacy(s), AccentFolder.fold(s));
+        }
+    }
+
+    /** Mots distincts de même case de cache (même hashCode) : aucune entrée ne doit déborder sur l'autre. */
+    @Test
+    public void collidingCacheSlots() {
+        String[] same = {"Aaé", "BBé"};
+        assertEquals(same[0].hashCode(), same[1].hashCode());
+        for (int i = 0; i < 100; i++) {
+            for (String s : same) assertEquals(legacy(s), AccentFolder.fold(s));
+        }
+    }
+
+    /** Cache partagé sans verrou : des threads concurrents doivent tous obtenir la bonne forme. */
+    @Test
+    public void concurrentCallersSeeCorrectResults() throws Exception {
+        final String[] words = new String[20000];
+        final String[] expected = new String[words.length];
+        Random random = new Random(9);
+        String letters = "aeiouéèêëàâçôœÉÀÇŒǅḀ";
+        for (int i = 0; i < words.length; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = 1 + random.nextInt(8);
+            for (int j = 0; j < length; j++) sb.append(letters.charAt(random.nextInt(letters.length())));
+            words[i] = sb.toString();
+            expected[i] = legacy(words[i]);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+            for (int t = 0; t < 8; t++) {
+                final int seed = t;
+                results.add(pool.submit(new Callable<Integer>() {
+                    public Integer call() {
+                        Random r = new Random(seed);
+                        int errors = 0;
+                        for (int n = 0; n < 200000; n++) {
+                            int i = r.nextInt(words.length);
+                            if (!expected[i].equals(AccentFolder.fold(words[i]))) errors++;
+                        }
+                        return errors;
+                    }
+                }));
+            }
+            for (Future<Integer> f : results) assertEquals(Integer.valueOf(0), f.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Le tri externe doit écrire exactement le résultat de {@link SortEngine}, quel que soit le budget.
+ */
+public class ExternalSorterTest {
+
+    private static final String[] ALPHABET = {"ǅ", "Ǆ", "ǆ", "e", "é", "É", "E", "a", "A", "b", "-"};
+    /** Du segment d'un mot à l'entrée entière en mémoire. */
+    private static final long[] BUDGETS = {1, 16, 64, 2000, 1 << 20};
+    private static final long[] RANDOM_BUDGETS = {2000, 8000, 1 << 20};
+
+    private static String external(String text, SortOptions options, long budget, int threads) throws IOException {
+        ExternalSorter sorter = new ExternalSorter(options, budget, null, threads);
+        try {
+            sorter.addAll(new StringReader(text));
+            StringWriter out = new StringWriter();
+            sorter.writeTo(out, "\n");
+            return out.toString();
+        } finally {
+            sorter.close();
+        }
+    }
+
+    private static String engine(String text, SortOptions options) {
+        StringBuilder sb = new StringBuilder();
+        for (String w : new SortEngine().sort(text, options).getWords()) sb.append(w).append('\n');
+        return sb.toString();
+    }
+
+    /** « ǅ » et « Ǆ » ont la même clé de dédoublonnage mais des clés de tri différentes. */
+    @Test
+    public void dedupAcrossDifferentSortKeys() throws IOException {
+        SortOptions options = new SortOptions();
+        options.setIgnoreCase(true);
+        options.setRemoveDuplicates(true);
+        for (long budget : BUDGETS) assertEquals("ǅ\n", external("ǅ Ǆ", options, budget, 1));
+    }
+
+    private static String randomText(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            int length = 1 + random.nextInt(3);
+            for (int j = 0; j < length; j++) sb.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+            sb.append(' ');
+        }
+        return sb.toString();
+    }
+
+    private static SortOptions options(int mode) {
+        SortOptions options = new SortOptions();
+        options.setAscending((mode & 1) == 0);
+        options.setIgnoreCase((mode & 2) != 0);
+        options.setIgnoreAccents((mode & 4) != 0);
+        options.setRemoveDuplicates((mode & 8) != 0);
+        return options;
+    }
+
+    @Test
+    public void sameAsEngineForAllOptions() throws IOException {
+        String text = randomText(new Random(42), 400);
+        for (int mode = 0; mode < 16; mode++) {
+            SortOptions options = options(mode);
+            String expected = engine(text, options);
+            for (long budget : RANDOM_BUDGETS) {
+                assertEquals("mode " + mode + ", budget " + budget, expected, external(text, options, budget, 1));
+                assertEquals("mode " + mode + ", budget " + budget, expected, external(text, options, budget, 3));
+            }
+        }
+    }
+
+    /**
+     * Budget minuscule : des centaines de segments, donc des passes de fusion intermédiaires,
+     * et des doublons répartis sur des segments différents.
+     */
+    @Test
+    public void manyRunsAndDuplicatesAcrossRuns() throws IOException {
+        String text = randomText(new Random(7), 4000);
+        for (int mode = 0; mode < 16; mode++) {
+            SortOptions options = options(mode);
+            ExternalSorter sorter = new ExternalSorter(options, 1000, null);
+            try {
+                sorter.addAll(new StringReader(text));
+                assertTrue("mode " + mode, sorter.getRunCount() > 2 * ExternalSorter.MERGE_FAN_IN);
+                StringWriter out = new StringWriter();
+                sorter.writeTo(out, "\n");
+                assertEquals("mode " + mode, engine(text, options), out.toString());
+            } finally {
+                sorter.close();
+            }
+        }
+        // Chaque segment ne contient que des doublons des autres : seule la première occurrence reste
+        SortOptions options = options(8 | 2);
+        StringBuilder repeated = new StringBuilder();
+        for (int i = 0; i < 3000; i++) repeated.append(i % 2 == 0 ? "Été " : "ÉTÉ ").append(i % 3 == 0 ? "b " : "B ");
+        assertEquals("b\nÉté\n", external(repeated.toString(), options, 500, 1));
+        assertEquals("b\nÉté\n", external(repeated.toString(), options, 500, 3));
+    }
+}
@@ -0,0 +1,101 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Détection de l'encodage : load (chargement en mémoire) et openReader (flux du tri externe)
+ * doivent lire le même texte, y compris quand l'ISO-8859-1 n'apparaît que loin dans le fichier.
+ */
+public class FileLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(byte[]... parts) throws IOException {
+        File f = folder.newFile();
+        OutputStream out = new FileOutputStream(f);
+        try {
+            for (byte[] part : parts) out.write(part);
+        } finally {
+            out.close();
+        }
+        return f;
+    }
+
+    private static String stream(File f, Charset charset) throws IOException {
+        Reader reader = FileLoader.openReader(f, charset);
+        try {
+            StringBuilder sb = new StringBuilder();
+            char[] buffer = new char[4096];
+            int n;
+            while ((n = reader.read(buffer)) != -1) sb.append(buffer, 0, n);
+            return sb.toString();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static void assertBothRead(String expected, File f) throws IOException {
+        assertEquals(expected, FileLoader.load(f, null, ProgressListener.NONE).toString());
+        assertEquals(expected, stream(f, null));
+    }
+
+    private static String ascii(int length) {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < length) sb.append("mot ");
+        return sb.substring(0, length);
+    }
+
+    @Test
+    public void pureUtf8() throws IOException {
+        String text = "été Œuvre ça 𝔘 😀 zèbre";
+        assertBothRead(text, write(text.getBytes(StandardCharsets.UTF_8)));
+        // BOM retiré
+        assertBothRead(text, write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF}, text.getBytes(StandardCharsets.UTF_8)));
+        assertBothRead("", write());
+    }
+
+    @Test
+    public void pureLatin1() throws IOException {
+        String text = "été ça zèbre À l'œil";
+        assertBothRead(text.replace('œ', '?'), write(text.getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    /** Octets ISO-8859-1 après les 64 premiers Kio d'ASCII valide : tout le fichier est en ISO-8859-1. */
+    @Test
+    public void latin1AfterLongUtf8Prefix() throws IOException {
+        String prefix = ascii(200 << 10);
+        String tail = " été ça";
+        assertBothRead(prefix + tail, write(prefix.getBytes(StandardCharsets.US_ASCII), tail.getBytes(StandardCharsets.ISO_8859_1)));
+        // Un vrai UTF-8 multi-octets avant l'erreur : même repli pour les deux lectures
+        String utf8 = prefix + "é";
+        String expected = new String(utf8.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1) + tail;
+        assertBothRead(expected, write(utf8.getBytes(StandardCharsets.UTF_8), tail.getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    /** Caractère de deux octets à cheval sur deux fenêtres projetées (8 Mio) : toujours de l'UTF-8. */
+    @Test
+    public void utf8SequenceAcrossWindows() throws IOException {
+        String text = ascii((8 << 20) - 1) + "é";
+        assertBothRead(text, write(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void explicitCharsetWins() throws IOException {
+        String text = "été ça";
+        File f = write(text.getBytes(StandardCharsets.UTF_8));
+        String asLatin1 = new String(text.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1);
+        assertEquals(asLatin1, FileLoader.load(f, StandardCharsets.ISO_8859_1, ProgressListener.NONE).toString());
+        assertEquals(asLatin1, stream(f, StandardCharsets.ISO_8859_1));
+    }
+}
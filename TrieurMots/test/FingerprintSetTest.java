@@ -0,0 +1,111 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Dédoublonnage par empreintes : exactement les premières occurrences que gardait l'ancien
+ * LinkedHashMap, y compris quand des clés différentes ont la même empreinte.
+ */
+public class FingerprintSetTest {
+
+    private static final String[] PIECES = {"e", "é", "E", "É", "ǅ", "Ǆ", "ǆ", "oe", "œ", "a", "À", "-"};
+
+    /** Ancien dédoublonnage de performSort() : première occurrence de chaque clé. */
+    private static List<String> legacy(List<String> words, SortOptions options) {
+        Map<String, String> uniqueMap = new LinkedHashMap<String, String>();
+        for (String w : words) {
+            String key = SortEngine.dedupKey(w, options);
+            if (!uniqueMap.containsKey(key)) uniqueMap.put(key, w);
+        }
+        return new ArrayList<String>(uniqueMap.values());
+    }
+
+    private static List<String> randomWords(Random random, int count) {
+        List<String> words = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = 1 + random.nextInt(3);
+            for (int j = 0; j < length; j++) sb.append(PIECES[random.nextInt(PIECES.length)]);
+            words.add(sb.toString());
+        }
+        return words;
+    }
+
+    /**
+     * Ajoute les clés avec une empreinte imposée ; renvoie l'identifiant retenu pour chacune
+     * (le sien s'il est nouveau, celui de la première occurrence sinon).
+     */
+    private static int[] addAll(final List<String> keys, long[] fingerprints) {
+        FingerprintSet set = new FingerprintSet(4);
+        int[] kept = new int[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            final String key = keys.get(i);
+            int id = set.addIfAbsent(fingerprints[i], i, new FingerprintSet.Verifier() {
+                public boolean sameKey(int id) {
+                    return keys.get(id).equals(key);
+                }
+            });
+            kept[i] = id < 0 ? i : id;
+        }
+        return kept;
+    }
+
+    /** Identifiant de la première occurrence de chaque clé, calculé sans empreinte. */
+    private static int[] firstOccurrences(List<String> keys) {
+        Map<String, Integer> first = new LinkedHashMap<String, Integer>();
+        int[] expected = new int[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            if (!first.containsKey(keys.get(i))) first.put(keys.get(i), i);
+            expected[i] = first.get(keys.get(i));
+        }
+        return expected;
+    }
+
+    @Test
+    public void sameFirstOccurrencesAsLinkedHashMap() {
+        Random random = new Random(1);
+        List<String> words = randomWords(random, 5000);
+        for (int mode = 0; mode < 4; mode++) {
+            SortOptions options = new SortOptions();
+            options.setIgnoreCase((mode & 1) != 0);
+            options.setIgnoreAccents((mode & 2) != 0);
+            options.setRemoveDuplicates(true);
+            List<String> expected = legacy(words, options);
+            assertEquals("mode " + mode, expected, SortEngine.removeDuplicates(words, options, ProgressListener.NONE));
+            StringBuilder text = new StringBuilder();
+            for (String w : words) text.append(w).append(' ');
+            assertEquals("mode " + mode, expected.size(), new SortSession().sort(text, options).size());
+        }
+    }
+
+    /** Toutes les clés ont la même empreinte : seul le Verifier distingue les clés. */
+    @Test
+    public void allFingerprintsCollide() {
+        List<String> keys = randomWords(new Random(2), 2000);
+        for (long constant : new long[]{42L, 0L, 1L}) {
+            long[] fingerprints = new long[keys.size()];
+            Arrays.fill(fingerprints, constant);
+            int[] kept = addAll(keys, fingerprints);
+            int[] expected = firstOccurrences(keys);
+            for (int i = 0; i < keys.size(); i++) assertEquals(keys.get(i), expected[i], kept[i]);
+        }
+    }
+
+    /** Quelques empreintes partagées par beaucoup de clés, agrandissements de la table compris. */
+    @Test
+    public void fewDistinctFingerprints() {
+        List<String> keys = randomWords(new Random(3), 5000);
+        long[] fingerprints = new long[keys.size()];
+        for (int i = 0; i < keys.size(); i++) fingerprints[i] = keys.get(i).length() % 3;
+        int[] kept = addAll(keys, fingerprints);
+        int[] expected = firstOccurrences(keys);
+        for (int i = 0; i < keys.size(); i++) assertEquals(keys.get(i), expected[i], kept[i]);
+    }
+}
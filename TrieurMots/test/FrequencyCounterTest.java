@@ -0,0 +1,117 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Mode fréquence : comptes par clé de dédoublonnage, ordres alphabétique et par fréquence,
+ * et top k identique au début de l'ordre par fréquence, égalités à la frontière comprises.
+ */
+public class FrequencyCounterTest {
+
+    private static final String[] PIECES = {"e", "é", "E", "É", "a", "À", "b", "œ", "-"};
+
+    private static String[] count(String text, SortOptions options, FrequencyCounter.Order order, int topK) {
+        options.setCountFrequencies(true);
+        options.setFrequencyOrder(order);
+        options.setTopK(topK);
+        return new SortEngine().sort(text, options).getWords();
+    }
+
+    private static SortOptions options(int mode) {
+        SortOptions options = new SortOptions();
+        options.setAscending((mode & 1) == 0);
+        options.setIgnoreCase((mode & 2) != 0);
+        options.setIgnoreAccents((mode & 4) != 0);
+        return options;
+    }
+
+    private static String randomText(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            int length = 1 + random.nextInt(2);
+            for (int j = 0; j < length; j++) sb.append(PIECES[random.nextInt(PIECES.length)]);
+            sb.append(' ');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void countsByDedupKey() {
+        String text = "Été été ete b ÉTÉ b a";
+        SortOptions options = options(0);
+        assertEquals(Arrays.asList("a\t1", "b\t2", "ete\t1", "été\t1", "Été\t1", "ÉTÉ\t1"),
+                Arrays.asList(count(text, options, FrequencyCounter.Order.ALPHABETICAL, 0)));
+        // Ignorer casse et accents : un seul groupe, représenté par sa première occurrence
+        options = options(2 | 4);
+        assertEquals(Arrays.asList("Été\t4", "b\t2", "a\t1"),
+                Arrays.asList(count(text, options, FrequencyCounter.Order.BY_COUNT, 0)));
+    }
+
+    @Test
+    public void sameCountsAsLinkedHashMap() {
+        String text = randomText(new Random(4), 3000);
+        for (int mode = 0; mode < 8; mode++) {
+            SortOptions options = options(mode);
+            Map<String, Integer> expected = new LinkedHashMap<String, Integer>();
+            Map<String, String> firsts = new LinkedHashMap<String, String>();
+            List<String> words = new ArrayList<String>();
+            new WordTokenizer(options.getSeparators()).tokenize(text, words);
+            for (String w : words) {
+                String key = SortEngine.dedupKey(w, options);
+                if (!firsts.containsKey(key)) firsts.put(key, w);
+                expected.put(firsts.get(key), expected.containsKey(firsts.get(key)) ? expected.get(firsts.get(key)) + 1 : 1);
+            }
+            Map<String, Integer> actual = new LinkedHashMap<String, Integer>();
+            for (String line : count(text, options, FrequencyCounter.Order.ALPHABETICAL, 0)) {
+                int tab = line.lastIndexOf('\t');
+                actual.put(line.substring(0, tab), Integer.parseInt(line.substring(tab + 1)));
+            }
+            assertEquals("mode " + mode, expected, actual);
+        }
+    }
+
+    /** BY_COUNT : comptes décroissants, puis ordre alphabétique des options (croissant ou décroissant). */
+    @Test
+    public void byCountBreaksTiesAlphabetically() {
+        String text = "c b a c b a c d d";
+        assertEquals(Arrays.asList("c\t3", "a\t2", "b\t2", "d\t2"),
+                Arrays.asList(count(text, options(0), FrequencyCounter.Order.BY_COUNT, 0)));
+        assertEquals(Arrays.asList("c\t3", "d\t2", "b\t2", "a\t2"),
+                Arrays.asList(count(text, options(1), FrequencyCounter.Order.BY_COUNT, 0)));
+        // Top 2 : la frontière tombe au milieu des égalités, départagées comme BY_COUNT
+        assertEquals(Arrays.asList("c\t3", "a\t2"),
+                Arrays.asList(count(text, options(0), FrequencyCounter.Order.BY_COUNT, 2)));
+        assertEquals(Arrays.asList("c\t3", "d\t2"),
+                Arrays.asList(count(text, options(1), FrequencyCounter.Order.BY_COUNT, 2)));
+        assertEquals(Arrays.asList("a\t2", "c\t3"),
+                Arrays.asList(count(text, options(0), FrequencyCounter.Order.ALPHABETICAL, 2)));
+    }
+
+    /** Pour tout k : le top k est le début de l'ordre BY_COUNT complet, restitué dans l'ordre demandé. */
+    @Test
+    public void topKIsPrefixOfByCountOrder() {
+        String text = randomText(new Random(6), 500);
+        for (int mode = 0; mode < 8; mode++) {
+            String[] full = count(text, options(mode), FrequencyCounter.Order.BY_COUNT, 0);
+            String[] alphabetical = count(text, options(mode), FrequencyCounter.Order.ALPHABETICAL, 0);
+            for (int k = 1; k <= full.length + 1; k++) {
+                List<String> expected = Arrays.asList(full).subList(0, Math.min(k, full.length));
+                assertEquals("mode " + mode + ", k " + k, expected,
+                        Arrays.asList(count(text, options(mode), FrequencyCounter.Order.BY_COUNT, k)));
+                // Même sélection, dans l'ordre alphabétique complet
+                List<String> selected = new ArrayList<String>();
+                for (String line : alphabetical) if (new HashSet<String>(expected).contains(line)) selected.add(line);
+                assertEquals("mode " + mode + ", k " + k, selected,
+                        Arrays.asList(count(text, options(mode), FrequencyCounter.Order.ALPHABETICAL, k)));
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+import static org.junit.Assert.assertArrayEquals;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Le tri par base doit donner exactement Arrays.sort avec SortEngine.ASCENDING :
+ * octets non signés, clé préfixe d'une autre avant celle-ci, clés égales par index.
+ */
+public class RadixSortTest {
+
+    /** Octets tirés au hasard, extrêmes non signés compris, sur un préfixe commun éventuel. */
+    private static final byte[] BYTES = {0, 1, 2, 0x7F, (byte) 0x80, (byte) 0xFE, (byte) 0xFF};
+
+    private static void assertSameAsArraysSort(List<byte[]> keys, Random random) {
+        SortEngine.KeyedWord[] keyed = new SortEngine.KeyedWord[keys.size()];
+        for (int i = 0; i < keyed.length; i++) keyed[i] = new SortEngine.KeyedWord("w" + i, keys.get(i), i);
+        // Positions mélangées : les égalités doivent se départager par index, pas par position
+        Collections.shuffle(Arrays.asList(keyed), random);
+        SortEngine.KeyedWord[] expected = keyed.clone();
+        Arrays.sort(expected, SortEngine.ASCENDING);
+        RadixSort.sort(keyed, ProgressListener.NONE);
+        String[] expectedWords = new String[expected.length];
+        String[] actualWords = new String[keyed.length];
+        for (int i = 0; i < keyed.length; i++) {
+            expectedWords[i] = expected[i].word;
+            actualWords[i] = keyed[i].word;
+        }
+        assertArrayEquals("taille " + keys.size(), expectedWords, actualWords);
+    }
+
+    private static List<byte[]> randomKeys(Random random, int count, int prefixLength) {
+        byte[] prefix = new byte[prefixLength];
+        for (int i = 0; i < prefixLength; i++) prefix[i] = BYTES[random.nextInt(BYTES.length)];
+        List<byte[]> keys = new ArrayList<byte[]>();
+        for (int i = 0; i < count; i++) {
+            if (!keys.isEmpty() && random.nextInt(4) == 0) {
+                // Clé égale à une précédente, ou préfixe de celle-ci
+                byte[] other = keys.get(random.nextInt(keys.size()));
+                keys.add(Arrays.copyOf(other, random.nextBoolean() ? other.length : random.nextInt(other.length + 1)));
+                continue;
+            }
+            byte[] key = Arrays.copyOf(prefix, prefixLength + random.nextInt(4));
+            for (int j = prefixLength; j < key.length; j++) key[j] = BYTES[random.nextInt(BYTES.length)];
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    @Test
+    public void sameAsArraysSortAroundInsertionThreshold() {
+        Random random = new Random(16);
+        int threshold = RadixSort.INSERTION_THRESHOLD;
+        int[] sizes = {0, 1, 2, threshold - 1, threshold, threshold + 1, 2 * threshold, 1000, 20000};
+        for (int size : sizes) {
+            for (int prefixLength : new int[]{0, 1, 40}) {
+                assertSameAsArraysSort(randomKeys(random, size, prefixLength), random);
+            }
+        }
+    }
+
+    @Test
+    public void equalAndPrefixKeys() {
+        Random random = new Random(17);
+        for (int size : new int[]{RadixSort.INSERTION_THRESHOLD, RadixSort.INSERTION_THRESHOLD + 1, 5000}) {
+            List<byte[]> keys = new ArrayList<byte[]>();
+            byte[] longKey = new byte[300];
+            Arrays.fill(longKey, (byte) 0xC3);
+            for (int i = 0; i < size; i++) {
+                // Toutes les clés sont des préfixes les unes des autres, beaucoup sont égales
+                keys.add(Arrays.copyOf(longKey, random.nextInt(5) == 0 ? 300 : random.nextInt(301)));
+            }
+            assertSameAsArraysSort(keys, random);
+            // Clés toutes identiques : seul l'index ordonne
+            keys.clear();
+            for (int i = 0; i < size; i++) keys.add(longKey);
+            assertSameAsArraysSort(keys, random);
+        }
+    }
+
+    /** Vraies clés de collation, comme le moteur les calcule, sur un long préfixe commun. */
+    @Test
+    public void collationKeysWithSharedPrefix() {
+        Random random = new Random(18);
+        String[] pieces = {"e", "é", "E", "É", "œ", "a", "-", "z"};
+        SortOptions options = new SortOptions();
+        Collator collator = SortEngine.createCollator(options);
+        for (int size : new int[]{RadixSort.INSERTION_THRESHOLD - 1, RadixSort.INSERTION_THRESHOLD + 1, 3000}) {
+            List<byte[]> keys = new ArrayList<byte[]>();
+            for (int i = 0; i < size; i++) {
+                StringBuilder word = new StringBuilder("anticonstitutionnellement");
+                int length = random.nextInt(4);
+                for (int j = 0; j < length; j++) word.append(pieces[random.nextInt(pieces.length)]);
+                keys.add(SortEngine.sortKey(collator, word.toString(), options));
+            }
+            assertSameAsArraysSort(keys, random);
+        }
+    }
+}
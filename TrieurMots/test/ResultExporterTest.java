@@ -0,0 +1,128 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Export : un mot par ligne avec le séparateur demandé, UTF-8 éventuellement compressé,
+ * avancement jusqu'au total et fichier partiel supprimé à l'annulation.
+ */
+public class ResultExporterTest {
+
+    private static final String[] WORDS = {"abc", "été", "Œuvre", "𝔘nicode", "zèbre", ""};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) bytes.write(buffer, 0, n);
+        in.close();
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /** Mots en nombre suffisant pour plusieurs points de suivi. */
+    private static String[] manyWords(int count) {
+        String[] words = new String[count];
+        for (int i = 0; i < count; i++) words[i] = "mot" + i;
+        return words;
+    }
+
+    @Test
+    public void lineSeparators() throws IOException {
+        for (String lineSeparator : new String[]{ResultExporter.LF, ResultExporter.CRLF}) {
+            StringWriter out = new StringWriter();
+            ResultExporter.write(WORDS, out, lineSeparator, ProgressListener.NONE);
+            StringBuilder expected = new StringBuilder();
+            for (String w : WORDS) expected.append(w).append(lineSeparator);
+            assertEquals(expected.toString(), out.toString());
+            assertEquals(expected.toString(), ResultExporter.join(WORDS, lineSeparator));
+        }
+        assertEquals("", ResultExporter.join(new String[0], ResultExporter.CRLF));
+    }
+
+    @Test
+    public void gzipRoundTrip() throws IOException {
+        String[] words = manyWords(200000);
+        words[7] = "été";
+        for (boolean gzip : new boolean[]{false, true}) {
+            File f = folder.newFile();
+            ResultExporter.export(words, f, ResultExporter.CRLF, gzip, ProgressListener.NONE);
+            InputStream in = new FileInputStream(f);
+            if (gzip) in = new GZIPInputStream(in);
+            assertEquals(ResultExporter.join(words, ResultExporter.CRLF), read(in));
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            Writer out = ResultExporter.openWriter(bytes, gzip);
+            ResultExporter.write(WORDS, out, ResultExporter.LF, ProgressListener.NONE);
+            out.close();
+            InputStream back = new ByteArrayInputStream(bytes.toByteArray());
+            if (gzip) back = new GZIPInputStream(back);
+            assertEquals(ResultExporter.join(WORDS, ResultExporter.LF), read(back));
+        }
+    }
+
+    @Test
+    public void progressReachesTotal() throws IOException {
+        String[] words = manyWords(300000);
+        final List<long[]> calls = new ArrayList<long[]>();
+        ResultExporter.write(words, new StringWriter(), ResultExporter.LF, new ProgressListener() {
+            public void progress(Phase phase, long done, long total) {
+                assertEquals(Phase.EXPORT, phase);
+                calls.add(new long[]{done, total});
+            }
+
+            public boolean isCancelled() {
+                return false;
+            }
+        });
+        assertTrue(calls.size() > 2);
+        for (int i = 1; i < calls.size(); i++) {
+            assertTrue(calls.get(i)[0] > calls.get(i - 1)[0]);
+            assertEquals(words.length, calls.get(i)[1]);
+        }
+        assertArrayEquals(new long[]{0, words.length}, calls.get(0));
+        assertArrayEquals(new long[]{words.length, words.length}, calls.get(calls.size() - 1));
+    }
+
+    @Test
+    public void cancelledExportDeletesPartialFile() throws IOException {
+        File f = folder.newFile();
+        final int[] calls = new int[1];
+        try {
+            ResultExporter.export(manyWords(300000), f, ResultExporter.LF, true, new ProgressListener() {
+                public void progress(Phase phase, long done, long total) {
+                    calls[0]++;
+                }
+
+                public boolean isCancelled() {
+                    // Annulation après le premier bloc écrit
+                    return calls[0] > 1;
+                }
+            });
+            throw new AssertionError("annulation attendue");
+        } catch (CancellationException expected) {
+            assertFalse(f.exists());
+        }
+    }
+}
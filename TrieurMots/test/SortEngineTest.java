@@ -0,0 +1,90 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+import org.junit.Test;
+
+/**
+ * Annulation pendant l'étape de tri, la plus longue : le tri doit s'arrêter en cours de route.
+ * Tri parallèle : même résultat que le tri séquentiel, clés égales comprises.
+ */
+public class SortEngineTest {
+
+    /** Écouteur qui demande l'annulation dès le premier avancement signalé au milieu du tri. */
+    private static final class CancelDuringSort implements ProgressListener {
+        volatile boolean cancelled;
+
+        public void progress(Phase phase, long done, long total) {
+            if (phase == Phase.SORT && done > 0 && done < total) cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private static String words(int count) {
+        Random random = new Random(7);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < 8; j++) sb.append((char) ('a' + random.nextInt(26)));
+            sb.append(' ');
+        }
+        return sb.toString();
+    }
+
+    private static void assertCancelledDuringSort(SortOptions options) {
+        CancelDuringSort listener = new CancelDuringSort();
+        try {
+            new SortEngine().sort(words(200000), options, listener);
+            fail("Le tri aurait dû être annulé");
+        } catch (CancellationException expected) {
+            assertTrue(listener.cancelled);
+        }
+    }
+
+    @Test
+    public void comparisonSortIsCancellable() {
+        assertCancelledDuringSort(new SortOptions());
+    }
+
+    @Test
+    public void radixSortIsCancellable() {
+        SortOptions options = new SortOptions();
+        options.setRadixSort(true);
+        assertCancelledDuringSort(options);
+    }
+
+    /** Variantes de casse et d'accents d'un petit vocabulaire : beaucoup de clés égales. */
+    private static String variants(int count) {
+        String[] vocabulary = {"ete", "été", "Été", "ÉTÉ", "cote", "côte", "Côté", "coté", "a", "A", "à", "œuvre", "Oeuvre"};
+        Random random = new Random(11);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) sb.append(vocabulary[random.nextInt(vocabulary.length)]).append(i % 10 == 0 ? '\n' : ' ');
+        return sb.toString();
+    }
+
+    /**
+     * Plus de mots que le seuil de découpage d'Arrays.parallelSort (8192) : les clés égales
+     * tombent dans des tranches différentes et seul l'index d'origine les départage.
+     */
+    @Test
+    public void parallelSameAsSequentialForAllOptions() {
+        String text = variants(60000);
+        for (int mode = 0; mode < 16; mode++) {
+            SortOptions options = new SortOptions();
+            options.setAscending((mode & 1) == 0);
+            options.setIgnoreCase((mode & 2) != 0);
+            options.setIgnoreAccents((mode & 4) != 0);
+            options.setRemoveDuplicates((mode & 8) != 0);
+            options.setParallelThreshold(Integer.MAX_VALUE);
+            String[] sequential = new SortEngine().sort(text, options).getWords();
+            options.setParallelThreshold(0);
+            String[] parallel = new SortEngine().sort(text, options).getWords();
+            assertArrayEquals("mode " + mode, sequential, parallel);
+        }
+    }
+}
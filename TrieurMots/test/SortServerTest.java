@@ -0,0 +1,171 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Serveur de tri sur un port libre de la boucle locale : mêmes mots que le moteur appelé
+ * directement, gzip, refus des corps trop gros et requêtes simultanées indépendantes.
+ */
+public class SortServerTest {
+
+    private static final long MAX_BODY = 64 * 1024;
+    private static final String TEXT = "zèbre Été été ETE côte cote, Côté coté; œuvre abc Abc abc";
+
+    private static SortServer server;
+
+    @BeforeClass
+    public static void startServer() throws IOException {
+        server = new SortServer(0, MAX_BODY);
+        server.start();
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        server.stop();
+    }
+
+    /** Réponse d'une requête : code, en-têtes utiles et corps décodé. */
+    private static final class Response {
+        int status;
+        String encoding;
+        String body;
+    }
+
+    private static Response post(String query, byte[] body, boolean chunked, boolean gzip) throws IOException {
+        URL url = new URL("http://127.0.0.1:" + server.getPort() + "/sort" + (query.isEmpty() ? "" : "?" + query));
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "text/plain; charset=utf-8");
+            if (gzip) connection.setRequestProperty("Accept-Encoding", "gzip");
+            if (chunked) connection.setChunkedStreamingMode(4096);
+            else connection.setFixedLengthStreamingMode(body.length);
+            Response response = new Response();
+            try {
+                OutputStream out = connection.getOutputStream();
+                out.write(body);
+                out.close();
+            } catch (IOException ex) {
+                // Le serveur a pu répondre et fermer avant la fin de l'envoi (413)
+            }
+            response.status = connection.getResponseCode();
+            response.encoding = connection.getHeaderField("Content-Encoding");
+            InputStream in = response.status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            if ("gzip".equals(response.encoding)) in = new GZIPInputStream(in);
+            response.body = readFully(in);
+            return response;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) bytes.write(buffer, 0, n);
+        in.close();
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /** Ce que le moteur rend pour les mêmes options, une ligne par mot. */
+    private static String expected(String text, String query, String lineSeparator) {
+        SortOptions options = SortServer.parseOptions(SortServer.parseQuery(query));
+        StringBuilder sb = new StringBuilder();
+        for (String w : new SortEngine().sort(text, options).getWords()) sb.append(w).append(lineSeparator);
+        return sb.toString();
+    }
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void sortsWithOptions() throws IOException {
+        String[] queries = {
+            "", "desc", "ignore-case&ignore-accents&dedup", "ignore-accents&dedup&desc",
+            "count&by-count&top=3", "locale=fr&radix", "separators=%20&split-punctuation"
+        };
+        for (String query : queries) {
+            Response response = post(query, utf8(TEXT), false, false);
+            assertEquals(query, 200, response.status);
+            assertEquals(query, expected(TEXT, query, "\n"), response.body);
+        }
+        Response crlf = post("dedup&crlf", utf8(TEXT), true, false);
+        assertEquals(expected(TEXT, "dedup", "\r\n"), crlf.body);
+    }
+
+    @Test
+    public void gzipWhenAccepted() throws IOException {
+        Response response = post("ignore-case", utf8(TEXT), false, true);
+        assertEquals(200, response.status);
+        assertEquals("gzip", response.encoding);
+        assertEquals(expected(TEXT, "ignore-case", "\n"), response.body);
+    }
+
+    @Test
+    public void rejectsInvalidOptions() throws IOException {
+        assertEquals(400, post("unknown", utf8(TEXT), false, false).status);
+        assertEquals(400, post("top=x", utf8(TEXT), false, false).status);
+        // Locale sans règles de collation : refusée plutôt que mise en cache
+        assertEquals(400, post("locale=x-inconnue-1234", utf8(TEXT), false, false).status);
+    }
+
+    @Test
+    public void oversizedBodyIs413() throws IOException {
+        StringBuilder big = new StringBuilder();
+        while (big.length() <= MAX_BODY) big.append("mot ");
+        // Content-Length annoncé, puis corps envoyé par morceaux sans longueur
+        assertEquals(413, post("", utf8(big.toString()), false, false).status);
+        assertEquals(413, post("", utf8(big.toString()), true, false).status);
+        // Le serveur répond toujours après un refus
+        assertEquals(200, post("", utf8(TEXT), false, false).status);
+    }
+
+    @Test
+    public void concurrentRequestsAreIndependent() throws Exception {
+        final String[] queries = {"", "desc", "ignore-case&dedup", "ignore-accents&desc", "count&by-count"};
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (int t = 0; t < 32; t++) {
+                final int seed = t;
+                results.add(pool.submit(new Callable<Void>() {
+                    public Void call() throws IOException {
+                        Random random = new Random(seed);
+                        String[] pieces = {"été", "Été", "cote", "côte", "abc", "zèbre", "mot" + seed};
+                        StringBuilder text = new StringBuilder();
+                        for (int i = 0; i < 2000; i++) text.append(pieces[random.nextInt(pieces.length)]).append(' ');
+                        String query = queries[seed % queries.length];
+                        Response response = post(query, utf8(text.toString()), seed % 2 == 0, seed % 3 == 0);
+                        assertEquals(query, 200, response.status);
+                        assertEquals(query, expected(text.toString(), query, "\n"), response.body);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> f : results) f.get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
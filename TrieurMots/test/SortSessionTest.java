@@ -0,0 +1,38 @@
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Test;
+
+/**
+ * Le cache de session doit donner exactement le résultat de {@link SortEngine}.
+ */
+public class SortSessionTest {
+
+    private static SortOptions ignoreCaseDedup() {
+        SortOptions options = new SortOptions();
+        options.setIgnoreCase(true);
+        options.setRemoveDuplicates(true);
+        return options;
+    }
+
+    /** « ǅ » et « Ǆ » ont la même clé de dédoublonnage (« ǆ ») mais des clés de tri différentes. */
+    @Test
+    public void dedupAcrossDifferentSortKeys() {
+        SortOptions options = ignoreCaseDedup();
+        String text = "ǅ Ǆ";
+        String[] expected = new SortEngine().sort(text, options).getWords();
+        assertArrayEquals(new String[]{"ǅ"}, expected);
+        assertArrayEquals(expected, new SortSession().sort(text, options).getWords());
+    }
+
+    @Test
+    public void dedupAfterAppendAndReverse() {
+        SortOptions options = ignoreCaseDedup();
+        SortSession session = new SortSession();
+        session.sort("Été ǅ été b", options);
+        String text = "Été ǅ été b Ǆ B a";
+        assertArrayEquals(new SortEngine().sort(text, options).getWords(), session.sort(text, options).getWords());
+
+        options.setAscending(false);
+        assertArrayEquals(new SortEngine().sort(text, options).getWords(), session.sort(text, options).getWords());
+    }
+}
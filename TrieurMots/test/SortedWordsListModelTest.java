@@ -0,0 +1,69 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Saut par lettre : même résultat qu'un parcours de la liste, de startIndex compris avec retour au début.
+ */
+public class SortedWordsListModelTest {
+
+    private static final String[] INITIALS = {"a", "A", "à", "b", "É", "e", "z"};
+
+    /** Parcours de référence, dans le sens demandé. */
+    private static int expected(SortedWordsListModel model, char letter, int start, boolean forward) {
+        String key = SortEngine.removeAccents(String.valueOf(letter)).toLowerCase();
+        int size = model.getSize();
+        for (int n = 0; n < size; n++) {
+            int i = forward ? (start + n) % size : (start - n + size) % size;
+            String initial = SortEngine.removeAccents(model.getElementAt(i).substring(0, 1)).toLowerCase();
+            if (initial.equals(key)) return i;
+        }
+        return -1;
+    }
+
+    private static void assertSameAsScan(SortedWordsListModel model) {
+        for (char letter : new char[]{'a', 'B', 'é', 'z', 'q'}) {
+            for (int start = 0; start < model.getSize(); start++) {
+                for (boolean forward : new boolean[]{true, false}) {
+                    assertEquals(letter + " depuis " + start, expected(model, letter, start, forward),
+                            model.nextIndexOfLetter(letter, start, forward));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void repeatedLetterWrapsAround() {
+        SortedWordsListModel model = new SortedWordsListModel();
+        model.setWords(new String[]{"abc", "Ami", "bar", "été", "Ever"});
+        assertEquals(0, model.nextIndexOfLetter('a', 0, true));
+        // Même touche répétée : JList repart de la ligne suivante
+        assertEquals(1, model.nextIndexOfLetter('a', 1, true));
+        assertEquals(0, model.nextIndexOfLetter('a', 2, true));
+        assertEquals(3, model.nextIndexOfLetter('E', 0, true));
+        assertEquals(-1, model.nextIndexOfLetter('q', 0, true));
+    }
+
+    @Test
+    public void sameAsScanForSortedAndUnsortedWords() {
+        Random random = new Random(3);
+        String[] words = new String[60];
+        for (int i = 0; i < words.length; i++) words[i] = INITIALS[random.nextInt(INITIALS.length)] + i;
+        SortedWordsListModel model = new SortedWordsListModel();
+        // Ordre quelconque (tri par fréquence) puis ordre alphabétique
+        model.setWords(words.clone());
+        assertSameAsScan(model);
+        model.setWindow(7, 41);
+        assertSameAsScan(model);
+
+        SortOptions options = new SortOptions();
+        StringBuilder text = new StringBuilder();
+        for (String w : words) text.append(w).append(' ');
+        model.setWords(new SortEngine().sort(text, options).getWords());
+        assertSameAsScan(model);
+        model.setWindow(7, 41);
+        assertSameAsScan(model);
+    }
+}
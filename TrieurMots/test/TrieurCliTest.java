@@ -0,0 +1,58 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Plusieurs fichiers en entrée : aucun mot ne chevauche deux fichiers, quel que soit le jeu
+ * de séparateurs, et le tri en mémoire rend le même résultat que le tri externe.
+ */
+public class TrieurCliTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(String text) throws IOException {
+        File f = folder.newFile();
+        Files.write(f.toPath(), text.getBytes(StandardCharsets.UTF_8));
+        return f;
+    }
+
+    private String sort(String... args) throws IOException {
+        File out = new File(folder.getRoot(), "sortie-" + System.nanoTime() + ".txt");
+        String[] all = new String[args.length + 2];
+        all[0] = "-o";
+        all[1] = out.getPath();
+        System.arraycopy(args, 0, all, 2, args.length);
+        assertEquals(0, TrieurCli.run(all));
+        return new String(Files.readAllBytes(out.toPath()), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void inputsDoNotMergeAcrossFiles() throws IOException {
+        // Pas de fin de ligne en fin de fichier, séparateurs sans '\n'
+        String first = write("zèbre été").getPath();
+        String second = write("abc.côte").getPath();
+        String third = write("").getPath();
+        String[][] separatorSets = {{"--separators", " "}, {"--separators", ".;"}, {"--split-punctuation"}, {}};
+        for (String[] separators : separatorSets) {
+            String[] args = new String[separators.length + 3];
+            System.arraycopy(separators, 0, args, 0, separators.length);
+            args[separators.length] = first;
+            args[separators.length + 1] = third;
+            args[separators.length + 2] = second;
+            String[] external = new String[args.length + 1];
+            external[0] = "--external";
+            System.arraycopy(args, 0, external, 1, args.length);
+            assertEquals(sort(external), sort(args));
+        }
+        assertEquals("abc.côte\nété\nzèbre\n", sort("--separators", " ", first, second));
+        assertEquals("abc\ncôte\nzèbre été\n", sort("--separators", ".", first, second));
+    }
+}
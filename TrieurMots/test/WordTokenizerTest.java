@@ -0,0 +1,106 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+/**
+ * Le découpage sans expression régulière doit donner exactement l'ancien split(regex),
+ * suivi de trim() et de l'élimination des mots vides, sur texte comme sur flux.
+ */
+public class WordTokenizerTest {
+
+    /** Fragments tirés au hasard : séparateurs, caractères de contrôle, accents, paires de substitution. */
+    private static final String[] PIECES = {
+        " ", "  ", ",", ";", "\t", "\n", "\r\n", "\u000B", "\f", ".", ":", "!", "\u0001", " ",
+        "a", "B", "é", "Ç", "œ", "𝔘", "😀", "«", "»", "-", "'"
+    };
+
+    /** Ancien découpage : split sur une suite de séparateurs, trim(), mots vides écartés. */
+    private static List<String> legacy(String text, String separators) {
+        StringBuilder regex = new StringBuilder("(?:");
+        for (int i = 0; i < separators.length(); i++) {
+            if (i > 0) regex.append('|');
+            regex.append(Pattern.quote(String.valueOf(separators.charAt(i))));
+        }
+        regex.append(")+");
+        List<String> words = new ArrayList<String>();
+        for (String w : text.split(regex.toString())) if (!w.trim().isEmpty()) words.add(w.trim());
+        return words;
+    }
+
+    private static List<String> tokenize(String text, String separators) {
+        List<String> words = new ArrayList<String>();
+        new WordTokenizer(separators).tokenize(text, words);
+        return words;
+    }
+
+    /** Lecture par morceaux de 7 caractères : les mots chevauchent les remplissages du tampon. */
+    private static List<String> stream(String text, String separators) throws IOException {
+        Reader reader = new StringReader(text) {
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                return super.read(cbuf, off, Math.min(len, 7));
+            }
+        };
+        WordTokenizer.Words words = new WordTokenizer(separators).words(reader);
+        List<String> out = new ArrayList<String>();
+        String w;
+        while ((w = words.next()) != null) out.add(w);
+        return out;
+    }
+
+    private static void assertSameAsLegacy(String text, String separators) throws IOException {
+        List<String> expected = legacy(text, separators);
+        assertEquals(text, expected, tokenize(text, separators));
+        assertEquals(text, expected, stream(text, separators));
+    }
+
+    @Test
+    public void defaultSeparatorsMatchOldRegex() throws IOException {
+        // Expression de l'ancien performSort(), telle quelle
+        String text = " , a,,b ;\tc\u000B\fd\r\n\u0001e\u00A0f";
+        List<String> expected = new ArrayList<String>();
+        for (String w : text.split("[\\s,;\\n\\t]+")) if (!w.trim().isEmpty()) expected.add(w.trim());
+        assertEquals(expected, tokenize(text, WordTokenizer.DEFAULT_SEPARATORS));
+        assertEquals(expected, stream(text, WordTokenizer.DEFAULT_SEPARATORS));
+    }
+
+    @Test
+    public void edgeCases() throws IOException {
+        String[] separatorSets = {
+            WordTokenizer.DEFAULT_SEPARATORS, WordTokenizer.DEFAULT_SEPARATORS + WordTokenizer.PUNCTUATION, ".-", "«»"
+        };
+        String[] texts = {
+            "", " ", ",,, ;;", "mot", "  début et fin  ", ",;a;;,b,", "\u0001a\u0001 b", "a.b-c«d»e",
+            "𝔘nicode 😀, 😀x", " a  b"
+        };
+        for (String separators : separatorSets) {
+            for (String text : texts) assertSameAsLegacy(text, separators);
+        }
+    }
+
+    @Test
+    public void randomTextsMatchOldRegex() throws IOException {
+        Random random = new Random(5);
+        String[] separatorSets = {
+            WordTokenizer.DEFAULT_SEPARATORS, WordTokenizer.DEFAULT_SEPARATORS + WordTokenizer.PUNCTUATION, " .", "-'«"
+        };
+        for (int n = 0; n < 200; n++) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(60);
+            for (int i = 0; i < length; i++) sb.append(PIECES[random.nextInt(PIECES.length)]);
+            for (String separators : separatorSets) assertSameAsLegacy(sb.toString(), separators);
+        }
+        // Texte plus long que le tampon du flux (64 Kio)
+        StringBuilder big = new StringBuilder();
+        while (big.length() < 200000) big.append(PIECES[random.nextInt(PIECES.length)]);
+        assertSameAsLegacy(big.toString(), WordTokenizer.DEFAULT_SEPARATORS);
+    }
+}
@@ -0,0 +1,93 @@
+package trieursmots.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Point d'entrée de benchmarks.jar : mêmes arguments que org.openjdk.jmh.Main, avec le
+ * profileur d'allocation (-prof gc) actif par défaut ; --no-gc-profile le désactive.
+ * Avant toute mesure, vérifie que l'ancien pipeline et le moteur donnent le même résultat
+ * pour chaque combinaison de cases à cocher et chaque profil de corpus : sinon, les deux
+ * séries de benchmarks ne mesureraient pas le même travail.
+ */
+public final class BenchmarkMain {
+
+    /** Option propre à ce lanceur, retirée avant l'analyse des arguments JMH. */
+    private static final String NO_GC_PROFILE = "--no-gc-profile";
+    /** Taille des corpus de vérification : assez pour les doublons et les égalités de clé. */
+    private static final int CHECK_SIZE = 10000;
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        List<String> jmhArgs = new ArrayList<String>(Arrays.asList(args));
+        boolean gcProfile = !jmhArgs.remove(NO_GC_PROFILE);
+        CommandLineOptions cli = new CommandLineOptions(jmhArgs.toArray(new String[0]));
+        if (cli.shouldHelp()) {
+            cli.showHelp();
+            System.out.println("  " + NO_GC_PROFILE + "    Ne pas activer le profileur d'allocation (-prof gc).");
+            return;
+        }
+        if (cli.shouldList()) {
+            new Runner(cli).list();
+            return;
+        }
+        if (!sameOutput()) System.exit(1);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(cli);
+        if (gcProfile) options.addProfiler(GCProfiler.class);
+        new Runner(options.build()).run();
+    }
+
+    /**
+     * Compare l'ancien pipeline et le moteur (tri classique et radix) pour les 16 combinaisons
+     * de cases à cocher. Le moteur trie par CollationKey : la référence est donc l'ancien
+     * pipeline (découpage, dédoublonnage, tri stable, inversion) avec ce même ordre. Les rangs
+     * où l'ancien tri par Collator.compare() diffère, écart propre au JDK, sont signalés sans
+     * faire échouer la vérification.
+     */
+    static boolean sameOutput() {
+        for (Corpus.Kind kind : Corpus.Kind.values()) {
+            String text = Corpus.generate(kind, CHECK_SIZE, 42L);
+            for (SortMode mode : SortMode.all()) {
+                List<String> reference = LegacyPipelineBenchmark.sortedWords(text, mode,
+                        LegacyPipelineBenchmark.keyComparator(mode));
+                Object[] engineOptions = {Engine.options(mode), Engine.radix(Engine.options(mode))};
+                for (Object options : engineOptions) {
+                    List<String> engine = Arrays.asList(Engine.words(Engine.sort(text, options)));
+                    if (!reference.equals(engine)) {
+                        System.err.println("Résultats différents entre l'ancien pipeline et le moteur (corpus " + kind
+                                + ", " + CHECK_SIZE + " mots, mode " + mode + ") : " + firstDifference(reference, engine));
+                        return false;
+                    }
+                }
+                List<String> legacy = LegacyPipelineBenchmark.sortedWords(text, mode);
+                if (!legacy.equals(reference)) {
+                    System.err.println("Avertissement (corpus " + kind + ", mode " + mode + ") : Collator.compare() et"
+                            + " CollationKey ne classent pas pareil, " + firstDifference(legacy, reference));
+                }
+            }
+        }
+        return true;
+    }
+
+    private static String firstDifference(List<String> expected, List<String> actual) {
+        int n = Math.min(expected.size(), actual.size());
+        for (int i = 0; i < n; i++) {
+            if (!expected.get(i).equals(actual.get(i))) {
+                return "rang " + i + ", « " + expected.get(i) + " » attendu, « " + actual.get(i) + " » obtenu";
+            }
+        }
+        return expected.size() + " mots attendus, " + actual.size() + " obtenus";
+    }
+}
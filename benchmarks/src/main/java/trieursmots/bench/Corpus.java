@@ -0,0 +1,54 @@
+package trieursmots.bench;
+
+import java.util.Random;
+
+/**
+ * Corpus synthétiques pour les benchmarks, reproductibles (graine fixe).
+ */
+public final class Corpus {
+
+    /** Profils de données. */
+    public enum Kind {
+        /** Mots ASCII minuscules, peu de doublons. */
+        ASCII,
+        /** Vocabulaire français accentué (é, è, ç, œ...). */
+        FRENCH,
+        /** Français accentué avec casse mélangée (Été, ÉTÉ, été). */
+        MIXED_CASE,
+        /** Petit vocabulaire très répété (listes issues de journaux). */
+        DUPLICATES
+    }
+
+    private static final String ASCII_LETTERS = "abcdefghijklmnopqrstuvwxyz";
+    private static final String FRENCH_LETTERS = "abcdefghijklmnopqrstuvwxyzéèêàâçôîïùûœ";
+    private static final String SEPARATORS = " , ;\n\t";
+
+    private Corpus() {
+    }
+
+    /** Texte de {@code words} mots séparés par des séparateurs variés. */
+    public static String generate(Kind kind, int words, long seed) {
+        Random random = new Random(seed);
+        int vocabularySize = kind == Kind.DUPLICATES ? 2000 : Math.max(1000, words / 2);
+        String[] vocabulary = new String[vocabularySize];
+        String letters = kind == Kind.ASCII ? ASCII_LETTERS : FRENCH_LETTERS;
+        for (int i = 0; i < vocabularySize; i++) {
+            int length = 3 + random.nextInt(9);
+            StringBuilder w = new StringBuilder(length);
+            for (int j = 0; j < length; j++) w.append(letters.charAt(random.nextInt(letters.length())));
+            vocabulary[i] = w.toString();
+        }
+
+        StringBuilder sb = new StringBuilder(words * 10);
+        for (int i = 0; i < words; i++) {
+            String w = vocabulary[random.nextInt(vocabularySize)];
+            if (kind == Kind.MIXED_CASE) {
+                int variant = random.nextInt(3);
+                if (variant == 1) w = w.toUpperCase();
+                else if (variant == 2) w = Character.toUpperCase(w.charAt(0)) + w.substring(1);
+            }
+            sb.append(w).append(SEPARATORS.charAt(random.nextInt(SEPARATORS.length())));
+        }
+        return sb.toString();
+    }
+}
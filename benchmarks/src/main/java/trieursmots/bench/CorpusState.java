@@ -0,0 +1,27 @@
+package trieursmots.bench;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Corpus partagé par les benchmarks : profil de données × nombre de mots.
+ */
+@State(Scope.Benchmark)
+public class CorpusState {
+
+    @Param({"ASCII", "FRENCH", "MIXED_CASE", "DUPLICATES"})
+    public Corpus.Kind kind;
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    /** Texte brut, tel que collé dans la zone de saisie. */
+    public String text;
+
+    @Setup
+    public void generate() {
+        text = Corpus.generate(kind, size, 42L);
+    }
+}
@@ -0,0 +1,146 @@
+package trieursmots.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accès aux classes du moteur, qui vivent dans le paquetage par défaut :
+ * elles ne peuvent pas être importées depuis un paquetage nommé (imposé par JMH).
+ * Les MethodHandle statiques et finaux sont intégrés par le JIT : le surcoût est négligeable.
+ */
+final class Engine {
+
+    private static final MethodHandle NEW_OPTIONS;
+    private static final MethodHandle SET_ASCENDING;
+    private static final MethodHandle SET_IGNORE_CASE;
+    private static final MethodHandle SET_IGNORE_ACCENTS;
+    private static final MethodHandle SET_REMOVE_DUPLICATES;
+    private static final MethodHandle SET_RADIX_SORT;
+    private static final MethodHandle NEW_TOKENIZER;
+    private static final MethodHandle TOKENIZE;
+    private static final MethodHandle NEW_COUNTER;
+    private static final MethodHandle COUNTER_ADD_ALL;
+    private static final MethodHandle COUNTER_WORDS;
+    private static final MethodHandle FOLD;
+    private static final MethodHandle NEW_ENGINE;
+    private static final MethodHandle SORT;
+    private static final MethodHandle RESULT_WORDS;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> options = Class.forName("SortOptions");
+            Class<?> tokenizer = Class.forName("WordTokenizer");
+            Class<?> counter = Class.forName("FrequencyCounter");
+            Class<?> engine = Class.forName("SortEngine");
+            Class<?> result = Class.forName("SortResult");
+
+            NEW_OPTIONS = lookup.findConstructor(options, MethodType.methodType(void.class));
+            SET_ASCENDING = lookup.findVirtual(options, "setAscending", MethodType.methodType(void.class, boolean.class));
+            SET_IGNORE_CASE = lookup.findVirtual(options, "setIgnoreCase", MethodType.methodType(void.class, boolean.class));
+            SET_IGNORE_ACCENTS = lookup.findVirtual(options, "setIgnoreAccents", MethodType.methodType(void.class, boolean.class));
+            SET_REMOVE_DUPLICATES = lookup.findVirtual(options, "setRemoveDuplicates", MethodType.methodType(void.class, boolean.class));
+            SET_RADIX_SORT = lookup.findVirtual(options, "setRadixSort", MethodType.methodType(void.class, boolean.class));
+            NEW_TOKENIZER = lookup.findConstructor(tokenizer, MethodType.methodType(void.class));
+            TOKENIZE = lookup.findVirtual(tokenizer, "tokenize", MethodType.methodType(void.class, CharSequence.class, List.class));
+            NEW_COUNTER = lookup.findConstructor(counter, MethodType.methodType(void.class, options, int.class));
+            COUNTER_ADD_ALL = lookup.findVirtual(counter, "addAll", MethodType.methodType(void.class, List.class));
+            COUNTER_WORDS = lookup.findVirtual(counter, "getWords", MethodType.methodType(List.class));
+            FOLD = lookup.findStatic(Class.forName("AccentFolder"), "fold", MethodType.methodType(String.class, String.class));
+            NEW_ENGINE = lookup.findConstructor(engine, MethodType.methodType(void.class));
+            SORT = lookup.findVirtual(engine, "sort", MethodType.methodType(result, CharSequence.class, options));
+            RESULT_WORDS = lookup.findVirtual(result, "getWords", MethodType.methodType(String[].class));
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    private Engine() {
+    }
+
+    static Object options(SortMode mode) {
+        try {
+            Object options = NEW_OPTIONS.invoke();
+            SET_ASCENDING.invoke(options, mode.ascending);
+            SET_IGNORE_CASE.invoke(options, mode.ignoreCase);
+            SET_IGNORE_ACCENTS.invoke(options, mode.ignoreAccents);
+            SET_REMOVE_DUPLICATES.invoke(options, mode.dedup);
+            return options;
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /** Mêmes options, avec le tri radix sur les octets des clés. */
+    static Object radix(Object options) {
+        try {
+            SET_RADIX_SORT.invoke(options, true);
+            return options;
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static Object tokenizer() {
+        try {
+            return NEW_TOKENIZER.invoke();
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static List<String> tokenize(Object tokenizer, CharSequence text) {
+        try {
+            List<String> words = new ArrayList<String>();
+            TOKENIZE.invoke(tokenizer, text, words);
+            return words;
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<String> dedup(List<String> words, Object options) {
+        try {
+            Object counter = NEW_COUNTER.invoke(options, words.size());
+            COUNTER_ADD_ALL.invoke(counter, words);
+            return (List<String>) COUNTER_WORDS.invoke(counter);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static String fold(String word) {
+        try {
+            return (String) FOLD.invokeExact(word);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    static Object sort(CharSequence text, Object options) {
+        try {
+            return SORT.invoke(NEW_ENGINE.invoke(), text, options);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /** Mots triés d'un SortResult. */
+    static String[] words(Object result) {
+        try {
+            return (String[]) RESULT_WORDS.invoke(result);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) return (RuntimeException) t;
+        if (t instanceof Error) throw (Error) t;
+        return new IllegalStateException(t);
+    }
+}
@@ -0,0 +1,69 @@
+package trieursmots.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Les mêmes étapes avec le moteur actuel (SortEngine et ses composants),
+ * à comparer à {@link LegacyPipelineBenchmark} sur les mêmes corpus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class EnginePipelineBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Stages {
+        Object tokenizer;
+        Object options;
+        Object radixOptions;
+        List<String> words;
+
+        @Setup
+        public void prepare(CorpusState corpus, SortMode mode) {
+            tokenizer = Engine.tokenizer();
+            options = Engine.options(mode);
+            radixOptions = Engine.radix(Engine.options(mode));
+            words = Engine.tokenize(tokenizer, corpus.text);
+        }
+    }
+
+    @Benchmark
+    public List<String> tokenize(CorpusState corpus, Stages stages) {
+        return Engine.tokenize(stages.tokenizer, corpus.text);
+    }
+
+    @Benchmark
+    public List<String> dedup(Stages stages) {
+        return Engine.dedup(stages.words, stages.options);
+    }
+
+    @Benchmark
+    public void foldAccents(Stages stages, Blackhole bh) {
+        for (String w : stages.words) bh.consume(Engine.fold(w));
+    }
+
+    @Benchmark
+    public Object fullPipeline(CorpusState corpus, Stages stages) {
+        return Engine.sort(corpus.text, stages.options);
+    }
+
+    @Benchmark
+    public Object fullPipelineRadix(CorpusState corpus, Stages stages) {
+        return Engine.sort(corpus.text, stages.radixOptions);
+    }
+}
@@ -0,0 +1,182 @@
+package trieursmots.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Référence : chaque étape de l'ancien performSort() (v2.1), reproduite à l'identique,
+ * pour chaque combinaison de cases à cocher (voir {@link SortMode}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class LegacyPipelineBenchmark {
+
+    private static final Pattern DIACRITICS_PATTERN = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+    private static final String WORD_SEPARATORS_REGEX = "[\\s,;\\n\\t]+";
+    private static final Locale LOCALE = Locale.FRENCH;
+
+    @State(Scope.Benchmark)
+    public static class Stages {
+        List<String> words;
+        List<String> unique;
+        List<String> sorted;
+
+        @Setup
+        public void prepare(CorpusState corpus, SortMode mode) {
+            words = split(corpus.text);
+            unique = mode.dedup ? dedup(words, mode) : words;
+            sorted = sort(new ArrayList<String>(unique), mode);
+        }
+    }
+
+    @Benchmark
+    public List<String> split(CorpusState corpus) {
+        return split(corpus.text);
+    }
+
+    @Benchmark
+    public List<String> dedup(Stages stages, SortMode mode) {
+        return dedup(stages.words, mode);
+    }
+
+    @Benchmark
+    public void removeAccents(Stages stages, Blackhole bh) {
+        for (String w : stages.words) bh.consume(removeAccents(w));
+    }
+
+    @Benchmark
+    public List<String> collatorSort(Stages stages, SortMode mode) {
+        return sort(new ArrayList<String>(stages.unique), mode);
+    }
+
+    @Benchmark
+    public String join(Stages stages) {
+        StringBuilder sb = new StringBuilder();
+        for (String w : stages.sorted) sb.append(w).append("\n");
+        return sb.toString();
+    }
+
+    @Benchmark
+    public String fullPipeline(CorpusState corpus, SortMode mode) {
+        List<String> words = sortedWords(corpus.text, mode);
+        StringBuilder sb = new StringBuilder();
+        for (String w : words) sb.append(w).append("\n");
+        return sb.toString();
+    }
+
+    static List<String> split(String text) {
+        String[] rawWords = text.split(WORD_SEPARATORS_REGEX);
+        List<String> words = new ArrayList<String>();
+        for (String w : rawWords) if (!w.trim().isEmpty()) words.add(w.trim());
+        return words;
+    }
+
+    /** Découpage, dédoublonnage éventuel et tri : la liste finale de l'ancien performSort(). */
+    static List<String> sortedWords(String text, SortMode mode) {
+        return sortedWords(text, mode, comparator(mode));
+    }
+
+    /** Même pipeline avec un autre comparateur (voir {@link #keyComparator}). */
+    static List<String> sortedWords(String text, SortMode mode, Comparator<String> comparator) {
+        List<String> words = split(text);
+        if (mode.dedup) words = dedup(words, mode);
+        Collections.sort(words, comparator);
+        if (!mode.ascending) Collections.reverse(words);
+        return words;
+    }
+
+    static List<String> dedup(List<String> words, SortMode mode) {
+        Map<String, String> uniqueMap = new LinkedHashMap<String, String>();
+        for (String w : words) {
+            String key = w;
+            if (mode.ignoreCase) key = key.toLowerCase(LOCALE);
+            if (mode.ignoreAccents) key = removeAccents(key);
+            if (!uniqueMap.containsKey(key)) uniqueMap.put(key, w);
+        }
+        return new ArrayList<String>(uniqueMap.values());
+    }
+
+    /** Tri stable puis inversion pour l'ordre décroissant, comme l'ancien code. */
+    static List<String> sort(List<String> words, SortMode mode) {
+        Collections.sort(words, comparator(mode));
+        if (!mode.ascending) Collections.reverse(words);
+        return words;
+    }
+
+    static Comparator<String> comparator(SortMode mode) {
+        final Collator collator = collator(mode);
+        final boolean ignoreAccents = mode.ignoreAccents;
+        return new Comparator<String>() {
+            public int compare(String s1, String s2) {
+                String str1 = ignoreAccents ? removeAccents(s1) : s1;
+                String str2 = ignoreAccents ? removeAccents(s2) : s2;
+                return collator.compare(str1, str2);
+            }
+        };
+    }
+
+    /**
+     * Même Collator, mais comparaison des CollationKey, comme le moteur. Avec les règles
+     * françaises, le JDK ne classe pas toujours pareil par compare() et par les clés
+     * (ex. « ÇCÉ » et « Ccê » en force TERTIARY) : seul cet écart est toléré par BenchmarkMain.
+     */
+    static Comparator<String> keyComparator(SortMode mode) {
+        final Collator collator = collator(mode);
+        final boolean ignoreAccents = mode.ignoreAccents;
+        // Clés mémorisées : la vérification ne doit pas durer plus que les mesures
+        final Map<String, CollationKey> keys = new HashMap<String, CollationKey>();
+        return new Comparator<String>() {
+            public int compare(String s1, String s2) {
+                return key(s1).compareTo(key(s2));
+            }
+
+            private CollationKey key(String s) {
+                CollationKey key = keys.get(s);
+                if (key == null) {
+                    key = collator.getCollationKey(ignoreAccents ? removeAccents(s) : s);
+                    keys.put(s, key);
+                }
+                return key;
+            }
+        };
+    }
+
+    private static Collator collator(SortMode mode) {
+        Collator collator = Collator.getInstance(LOCALE);
+        if (mode.ignoreCase && !mode.ignoreAccents) collator.setStrength(Collator.SECONDARY);
+        else if (mode.ignoreCase && mode.ignoreAccents) collator.setStrength(Collator.PRIMARY);
+        else collator.setStrength(Collator.TERTIARY);
+        return collator;
+    }
+
+    static String removeAccents(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS_PATTERN.matcher(normalized).replaceAll("");
+    }
+}
@@ -0,0 +1,122 @@
+package trieursmots.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Client de charge pour le mode serveur (SortServer) : plusieurs threads envoient le même
+ * corpus en boucle et mesurent la latence de chaque requête, corps de réponse compris.
+ *
+ * Usage : java -cp benchmarks/target/benchmarks.jar trieursmots.bench.LoadTestClient
+ *             [--url u] [--concurrency n] [--requests n] [--words n] [--kind FRENCH]
+ */
+public final class LoadTestClient {
+
+    private static final String USAGE =
+            "Usage : LoadTestClient [options]\n"
+            + "  --url <u>           Adresse du service (défaut : http://127.0.0.1:8377/sort?dedup)\n"
+            + "  --concurrency <n>   Requêtes simultanées (défaut : 8)\n"
+            + "  --requests <n>      Nombre total de requêtes (défaut : 1000)\n"
+            + "  --words <n>         Mots par requête (défaut : 1000)\n"
+            + "  --kind <profil>     ASCII, FRENCH, MIXED_CASE ou DUPLICATES (défaut : FRENCH)";
+
+    private LoadTestClient() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = "http://127.0.0.1:8377/sort?dedup";
+        int concurrency = 8;
+        int requests = 1000;
+        int words = 1000;
+        Corpus.Kind kind = Corpus.Kind.FRENCH;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--url") && i + 1 < args.length) url = args[++i];
+            else if (arg.equals("--concurrency") && i + 1 < args.length) concurrency = Integer.parseInt(args[++i]);
+            else if (arg.equals("--requests") && i + 1 < args.length) requests = Integer.parseInt(args[++i]);
+            else if (arg.equals("--words") && i + 1 < args.length) words = Integer.parseInt(args[++i]);
+            else if (arg.equals("--kind") && i + 1 < args.length) kind = Corpus.Kind.valueOf(args[++i]);
+            else {
+                System.err.println(USAGE);
+                System.exit(arg.equals("-h") || arg.equals("--help") ? 0 : 2);
+            }
+        }
+
+        final URL target = new URL(url);
+        final byte[] body = Corpus.generate(kind, words, 42L).getBytes(StandardCharsets.UTF_8);
+        final long[] latencies = new long[requests];
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        final int total = requests;
+
+        // Une requête hors mesure : connexion et premier tri côté serveur
+        send(target, body);
+
+        List<Thread> threads = new ArrayList<Thread>();
+        long start = System.nanoTime();
+        for (int t = 0; t < concurrency; t++) {
+            Thread thread = new Thread(new Runnable() {
+                public void run() {
+                    int i;
+                    while ((i = next.getAndIncrement()) < total) {
+                        long begin = System.nanoTime();
+                        try {
+                            send(target, body);
+                        } catch (IOException ex) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - begin;
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) thread.join();
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf(Locale.ROOT, "%d requêtes (%d erreurs), %d mots chacune, %d en parallèle%n",
+                requests, errors.get(), words, concurrency);
+        System.out.printf(Locale.ROOT, "Durée : %.2f s, débit : %.1f requêtes/s%n",
+                elapsed / 1e9, requests / (elapsed / 1e9));
+        System.out.printf(Locale.ROOT, "Latence (ms) : p50 %.2f, p90 %.2f, p99 %.2f, max %.2f%n",
+                percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                latencies[latencies.length - 1] / 1e6);
+    }
+
+    /** Envoie le corps par morceaux et lit toute la réponse. */
+    private static void send(URL target, byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) target.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setChunkedStreamingMode(1 << 16);
+        connection.setRequestProperty("Content-Type", "text/plain; charset=utf-8");
+        OutputStream out = connection.getOutputStream();
+        out.write(body);
+        out.close();
+        if (connection.getResponseCode() != 200) {
+            throw new IOException("HTTP " + connection.getResponseCode());
+        }
+        InputStream in = connection.getInputStream();
+        byte[] buffer = new byte[1 << 16];
+        while (in.read(buffer) != -1) {
+            // Réponse lue en entier pour mesurer le transfert complet
+        }
+        in.close();
+    }
+
+    private static double percentile(long[] sorted, int p) {
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(p / 100.0 * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,69 @@
+package trieursmots.bench;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cases à cocher de l'interface, partagées par les deux séries de benchmarks.
+ * Une valeur de paramètre liste les options actives séparées par « + » (« none » : aucune),
+ * par exemple -p mode=ignore-case+dedup+desc. Les valeurs par défaut couvrent chaque
+ * force de comparaison, avec et sans dédoublonnage, dans les deux sens.
+ */
+@State(Scope.Benchmark)
+public class SortMode {
+
+    @Param({"ignore-case+ignore-accents+dedup", "none", "ignore-case+desc", "ignore-accents+dedup+desc"})
+    public String mode;
+
+    boolean ignoreCase;
+    boolean ignoreAccents;
+    boolean dedup;
+    boolean ascending;
+
+    @Setup
+    public void parse() {
+        ignoreCase = ignoreAccents = dedup = false;
+        ascending = true;
+        if (mode.equals("none")) return;
+        for (String option : mode.split("\\+")) {
+            if (option.equals("ignore-case")) ignoreCase = true;
+            else if (option.equals("ignore-accents")) ignoreAccents = true;
+            else if (option.equals("dedup")) dedup = true;
+            else if (option.equals("desc")) ascending = false;
+            else throw new IllegalArgumentException("Option inconnue : " + option);
+        }
+    }
+
+    static SortMode of(String mode) {
+        SortMode m = new SortMode();
+        m.mode = mode;
+        m.parse();
+        return m;
+    }
+
+    /** Les 16 combinaisons des quatre cases à cocher. */
+    static List<SortMode> all() {
+        List<SortMode> modes = new ArrayList<SortMode>();
+        String[] names = {"ignore-case", "ignore-accents", "dedup", "desc"};
+        for (int bits = 0; bits < 16; bits++) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < names.length; i++) {
+                if ((bits & (1 << i)) == 0) continue;
+                if (sb.length() > 0) sb.append('+');
+                sb.append(names[i]);
+            }
+            modes.add(of(sb.length() == 0 ? "none" : sb.toString()));
+        }
+        return modes;
+    }
+
+    @Override
+    public String toString() {
+        return mode;
+    }
+}